@@ -15,7 +15,6 @@ import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
 import java.io.IOException;
@@ -34,15 +33,18 @@ public final class YAPIMARU_Plugin extends JavaPlugin {
 
     private NameManager nameManager;
     private GuiManager creatorGuiManager;
+    private SkullCache skullCache;
     private TimerManager timerManager;
     private PvpManager pvpManager;
     private PlayerRestrictionManager restrictionManager;
     private SpectatorManager spectatorManager;
     private VoteManager voteManager;
     private ParticipantManager participantManager;
+    private ChatStatsManager chatStatsManager;
     private WhitelistManager whitelistManager;
     private YmCommand ymCommand;
     private LinkManager linkManager;
+    private StartupLoader startupLoader;
 
     private List<String> commandManual = new ArrayList<>();
 
@@ -65,18 +67,17 @@ public final class YAPIMARU_Plugin extends JavaPlugin {
         registerListeners();
         registerCommands();
 
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            participantManager.recordLoginTime(player);
-            nameManager.updatePlayerName(player);
-        }
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                linkManager.initializeChestMappings();
-                getLogger().info("Shared chest mappings have been initialized after server startup.");
+        // 参加者と共有チェストのファイルは並列に読み込み、終わるまでログインを待たせる
+        startupLoader = new StartupLoader(this);
+        startupLoader.add("participants", participantManager::loadAllParticipants);
+        startupLoader.add("linked groups", linkManager::loadGroups);
+        startupLoader.start(() -> {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                participantManager.recordLoginTime(player);
+                nameManager.refreshColorTag(player);
+                nameManager.updatePlayerName(player);
             }
-        }.runTaskLater(this, 1L);
+        });
 
         getLogger().info("YAPIMARU Plugin has been enabled!");
     }
@@ -89,13 +90,18 @@ public final class YAPIMARU_Plugin extends JavaPlugin {
             }
         }
         if (timerManager != null) timerManager.forceStop(true);
+        if (linkManager != null) linkManager.shutdown();
 
         if (participantManager != null) {
             for (Player player : Bukkit.getOnlinePlayers()) {
                 participantManager.recordQuitTime(player);
             }
+            if (chatStatsManager != null) chatStatsManager.shutdown();
+            participantManager.shutdown();
         }
 
+        if (skullCache != null) getLogger().info("Skull cache: " + skullCache.getStats());
+
         if(adventure != null) {
             adventure.close();
             this.adventure = null;
@@ -123,7 +129,10 @@ public final class YAPIMARU_Plugin extends JavaPlugin {
         }
 
         if (participantManager != null) participantManager.reloadAllParticipants();
-        if (nameManager != null) nameManager.reloadData();
+        if (nameManager != null) {
+            nameManager.clearRenderCache();
+            nameManager.reloadData();
+        }
         if (whitelistManager != null) whitelistManager.load();
     }
 
@@ -133,10 +142,12 @@ public final class YAPIMARU_Plugin extends JavaPlugin {
 
     private void initializeManagers() {
         participantManager = new ParticipantManager(this);
+        chatStatsManager = new ChatStatsManager(this, participantManager);
         voteManager = new VoteManager(this);
         nameManager = new NameManager(this, participantManager);
         whitelistManager = new WhitelistManager(this, participantManager);
-        creatorGuiManager = new GuiManager(nameManager);
+        skullCache = new SkullCache(this);
+        creatorGuiManager = new GuiManager(nameManager, skullCache);
         pvpManager = new PvpManager(this);
         timerManager = new TimerManager(this);
         restrictionManager = new PlayerRestrictionManager();
@@ -199,8 +210,11 @@ public final class YAPIMARU_Plugin extends JavaPlugin {
     public PlayerRestrictionManager getRestrictionManager() { return restrictionManager; }
     public SpectatorManager getSpectatorManager() { return spectatorManager; }
     public GuiManager getCreatorGuiManager() { return creatorGuiManager; }
+    public SkullCache getSkullCache() { return skullCache; }
     public ParticipantManager getParticipantManager() { return participantManager; }
+    public ChatStatsManager getChatStatsManager() { return chatStatsManager; }
     public WhitelistManager getWhitelistManager() { return whitelistManager; }
     public YmCommand getYmCommand() { return ymCommand; }
     public LinkManager getLinkManager() { return linkManager; }
+    public StartupLoader getStartupLoader() { return startupLoader; }
 }
\ No newline at end of file
@@ -44,6 +44,11 @@ public class LinkCommand implements CommandExecutor {
             case "create" -> handleCreate(player, subArgs);
             case "delete" -> handleDelete(player, subArgs);
             case "list" -> handleList(player);
+            case "export" -> handleExport(player, subArgs);
+            case "import" -> handleImport(player, subArgs);
+            case "backups" -> handleBackups(player, subArgs);
+            case "restore" -> handleRestore(player, subArgs);
+            case "bench" -> handleBench(player, subArgs);
             case "add" -> handleAdd(player, subArgs);
             case "remove" -> handleRemove(player);
             case "info" -> handleInfo(player, subArgs);
@@ -52,6 +57,7 @@ public class LinkCommand implements CommandExecutor {
             case "delmod" -> handleDelMod(player, subArgs);
             case "mode" -> handleMode(player);
             case "autosort" -> handleAutoSort(player, subArgs);
+            case "particles" -> linkManager.toggleParticles(player);
             default -> sendHelp(player);
         }
         return true;
@@ -91,6 +97,75 @@ public class LinkCommand implements CommandExecutor {
         linkManager.listGroups(player);
     }
 
+    private void handleExport(Player player, String[] args) {
+        if (!player.isOp()) {
+            adventure.player(player).sendMessage(Component.text("このコマンドを実行する権限がありません。", NamedTextColor.RED));
+            return;
+        }
+        if (args.length < 1) {
+            adventure.player(player).sendMessage(Component.text("使い方: /link export <名前>", NamedTextColor.RED));
+            return;
+        }
+        linkManager.exportGroup(player, args[0]);
+    }
+
+    private void handleImport(Player player, String[] args) {
+        if (!player.isOp()) {
+            adventure.player(player).sendMessage(Component.text("このコマンドを実行する権限がありません。", NamedTextColor.RED));
+            return;
+        }
+        if (args.length < 1) {
+            adventure.player(player).sendMessage(Component.text("使い方: /link import <名前>", NamedTextColor.RED));
+            return;
+        }
+        linkManager.importGroup(player, args[0]);
+    }
+
+    private void handleBackups(Player player, String[] args) {
+        if (!player.isOp()) {
+            adventure.player(player).sendMessage(Component.text("このコマンドを実行する権限がありません。", NamedTextColor.RED));
+            return;
+        }
+        if (args.length < 1) {
+            adventure.player(player).sendMessage(Component.text("使い方: /link backups <名前>", NamedTextColor.RED));
+            return;
+        }
+        linkManager.listBackups(player, args[0]);
+    }
+
+    private void handleRestore(Player player, String[] args) {
+        if (!player.isOp()) {
+            adventure.player(player).sendMessage(Component.text("このコマンドを実行する権限がありません。", NamedTextColor.RED));
+            return;
+        }
+        if (args.length < 2) {
+            adventure.player(player).sendMessage(Component.text("使い方: /link restore <名前> <バックアップID>", NamedTextColor.RED));
+            return;
+        }
+        linkManager.restoreBackup(player, args[0], args[1]);
+    }
+
+    private void handleBench(Player player, String[] args) {
+        if (!player.isOp()) {
+            adventure.player(player).sendMessage(Component.text("このコマンドを実行する権限がありません。", NamedTextColor.RED));
+            return;
+        }
+        int groups = 500;
+        int slots = 54;
+        try {
+            if (args.length > 0) groups = Integer.parseInt(args[0]);
+            if (args.length > 1) slots = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            adventure.player(player).sendMessage(Component.text("使い方: /link bench [グループ数] [スロット数]", NamedTextColor.RED));
+            return;
+        }
+        if (groups < 1 || slots < 1 || slots > 54) {
+            adventure.player(player).sendMessage(Component.text("グループ数は1以上、スロット数は1～54で指定してください。", NamedTextColor.RED));
+            return;
+        }
+        linkManager.benchmarkStorage(player, groups, slots);
+    }
+
     private void handleAdd(Player player, String[] args) {
         if (args.length < 1) {
             adventure.player(player).sendMessage(Component.text("使い方: /link add <名前>", NamedTextColor.RED));
@@ -216,6 +291,11 @@ public class LinkCommand implements CommandExecutor {
             adventure.player(player).sendMessage(Component.text("/link create <名前> - 新規グループ作成", NamedTextColor.AQUA));
             adventure.player(player).sendMessage(Component.text("/link delete <名前> - グループ削除", NamedTextColor.AQUA));
             adventure.player(player).sendMessage(Component.text("/link list - 全グループ一覧", NamedTextColor.AQUA));
+            adventure.player(player).sendMessage(Component.text("/link export <名前> - YAMLに書き出し (links/export/)", NamedTextColor.AQUA));
+            adventure.player(player).sendMessage(Component.text("/link import <名前> - YAMLから読み込み (links/export/)", NamedTextColor.AQUA));
+            adventure.player(player).sendMessage(Component.text("/link backups <名前> - バックアップ一覧", NamedTextColor.AQUA));
+            adventure.player(player).sendMessage(Component.text("/link restore <名前> <ID> - バックアップを links/export/ に復元", NamedTextColor.AQUA));
+            adventure.player(player).sendMessage(Component.text("/link bench [グループ数] [スロット数] - 保存形式 (YAML/バイナリ) の速度比較", NamedTextColor.AQUA));
         }
         adventure.player(player).sendMessage(Component.text("/link add <名前> - チェスト追加", NamedTextColor.AQUA));
         adventure.player(player).sendMessage(Component.text("/link remove - チェスト解除", NamedTextColor.AQUA));
@@ -223,5 +303,6 @@ public class LinkCommand implements CommandExecutor {
         adventure.player(player).sendMessage(Component.text("/link open <名前> - 仮想インベントリを開く", NamedTextColor.AQUA));
         adventure.player(player).sendMessage(Component.text("/link addmod <名前> <プレイヤー> - 管理者任命", NamedTextColor.AQUA));
         adventure.player(player).sendMessage(Component.text("/link delmod <名前> <プレイヤー> - 管理者解任", NamedTextColor.AQUA));
+        adventure.player(player).sendMessage(Component.text("/link particles - 目印パーティクルの表示切替", NamedTextColor.AQUA));
     }
 }
\ No newline at end of file
@@ -138,6 +138,7 @@ public class NameCommand implements CommandExecutor {
                     return true;
 
                 }
+                nameManager.clearRenderCache();
                 nameManager.reloadData();
                 sender.sendMessage(ChatColor.GREEN + "名前表示をリロードしました。");
                 return true;
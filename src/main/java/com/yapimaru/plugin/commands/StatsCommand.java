@@ -2,6 +2,8 @@ package com.yapimaru.plugin.commands;
 
 import com.yapimaru.plugin.YAPIMARU_Plugin;
 import com.yapimaru.plugin.data.ParticipantData;
+import com.yapimaru.plugin.data.StatLeaderboard;
+import com.yapimaru.plugin.data.StatType;
 import com.yapimaru.plugin.managers.NameManager;
 import com.yapimaru.plugin.managers.ParticipantManager;
 import net.kyori.adventure.text.Component;
@@ -16,10 +18,6 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class StatsCommand implements CommandExecutor {
@@ -96,19 +94,24 @@ public class StatsCommand implements CommandExecutor {
         }
 
         plugin.getAdventure().sender(sender).sendMessage(Component.text("§6--- " + data.getDisplayName() + " の統計情報 ---"));
-        Map<String, Number> stats = data.getStatistics();
-        plugin.getAdventure().sender(sender).sendMessage(formatStat("デス合計数", stats.get("total_deaths")));
-        plugin.getAdventure().sender(sender).sendMessage(formatStat("サーバー入室合計回数", stats.get("total_joins")));
-        plugin.getAdventure().sender(sender).sendMessage(formatStat("サーバー参加合計時間", formatDuration(stats.get("total_playtime_seconds").longValue())));
-        plugin.getAdventure().sender(sender).sendMessage(formatStat("撮影参加合計回数", stats.get("photoshoot_participations")));
-        plugin.getAdventure().sender(sender).sendMessage(formatStat("チャット合計回数", stats.get("total_chats")));
-        plugin.getAdventure().sender(sender).sendMessage(formatStat("w合計数", stats.get("w_count")));
+        for (StatType type : StatType.values()) {
+            String value = formatStatValue(type, data.getStat(type));
+            int rank = participantManager.getRank(data, type, false);
+            if (rank > 0) {
+                value += " §7(" + rank + "位)";
+            }
+            plugin.getAdventure().sender(sender).sendMessage(formatStat(type.getDisplayName(), value));
+        }
     }
 
     private Component formatStat(String name, Object value) {
         return Component.text("§e" + name + ": §b" + value);
     }
 
+    private String formatStatValue(StatType type, long value) {
+        return type == StatType.TOTAL_PLAYTIME_SECONDS ? formatDuration(value) : String.valueOf(value);
+    }
+
     private String formatDuration(long totalSeconds) {
         long days = TimeUnit.SECONDS.toDays(totalSeconds);
         long hours = TimeUnit.SECONDS.toHours(totalSeconds) % 24;
@@ -118,59 +121,25 @@ public class StatsCommand implements CommandExecutor {
     }
 
     private void displayLeaderboard(CommandSender sender, String statName, boolean worst, int page) {
-        List<ParticipantData> allData = new ArrayList<>(participantManager.getActiveParticipants());
+        StatType statType = StatType.fromKey(statName);
+        StatLeaderboard leaderboard = statType != null ? participantManager.getLeaderboard(statType) : null;
 
-        if (allData.isEmpty() || allData.get(0).getStatistics().get(statName) == null) {
+        if (leaderboard == null || leaderboard.size() == 0) {
             plugin.getAdventure().sender(sender).sendMessage(Component.text("無効な統計項目です: " + statName, NamedTextColor.RED));
             return;
         }
 
-        Comparator<ParticipantData> comparator = Comparator.comparingDouble(p -> p.getStatistics().get(statName).doubleValue());
-        if (!worst) {
-            comparator = comparator.reversed();
-        }
-        allData.sort(comparator);
-
         int pageSize = 10;
-        int totalPages = (int) Math.ceil((double) allData.size() / pageSize);
+        int totalPages = (int) Math.ceil((double) leaderboard.size() / pageSize);
         if (page >= totalPages && totalPages > 0) page = totalPages - 1;
 
-        plugin.getAdventure().sender(sender).sendMessage(Component.text("§6ーーーーーーー " + getStatDisplayName(statName) + " ランキング" + (worst ? " (ワースト)" : "") + " ーーーーーーー"));
-
-        int start = page * pageSize;
-        int end = Math.min(start + pageSize, allData.size());
-
-        int currentRank = 0;
-        Number lastValue = null;
-        int rankOffset = 0;
+        plugin.getAdventure().sender(sender).sendMessage(Component.text("§6ーーーーーーー " + statType.getDisplayName() + " ランキング" + (worst ? " (ワースト)" : "") + " ーーーーーーー"));
 
-        if (start > 0) {
-            for (int i = 0; i < start; i++) {
-                Number currentValue = allData.get(i).getStatistics().get(statName);
-                if (lastValue == null || currentValue.doubleValue() != lastValue.doubleValue()) {
-                    currentRank += (1 + rankOffset);
-                    rankOffset = 0;
-                } else {
-                    rankOffset++;
-                }
-                lastValue = currentValue;
-            }
-        }
-
-        for (int i = start; i < end; i++) {
-            ParticipantData data = allData.get(i);
-            Number value = data.getStatistics().get(statName);
-
-            if (lastValue == null || value.doubleValue() != lastValue.doubleValue()) {
-                currentRank += (1 + rankOffset);
-                rankOffset = 0;
-            } else {
-                rankOffset++;
-            }
-
-            String valueStr = (statName.equals("total_playtime_seconds")) ? formatDuration(value.longValue()) : value.toString();
-            plugin.getAdventure().sender(sender).sendMessage(Component.text("  §e" + currentRank + "位 - §b" + valueStr + " §e- §f" + data.getDisplayName()));
-            lastValue = value;
+        for (ParticipantData data : leaderboard.getRange(page * pageSize, pageSize, !worst)) {
+            long value = data.getStat(statType);
+            int rank = leaderboard.getRank(value, !worst);
+            String valueStr = formatStatValue(statType, value);
+            plugin.getAdventure().sender(sender).sendMessage(Component.text("  §e" + rank + "位 - §b" + valueStr + " §e- §f" + data.getDisplayName()));
         }
 
         TextComponent.Builder footerBuilder = Component.text();
@@ -196,19 +165,7 @@ public class StatsCommand implements CommandExecutor {
 
         plugin.getAdventure().sender(sender).sendMessage(footerBuilder.build());
 
-        nameManager.setGloballyViewedStat(statName);
-    }
-
-    private String getStatDisplayName(String statName) {
-        return switch (statName) {
-            case "total_deaths" -> "デス合計数";
-            case "total_joins" -> "サーバー入室合計回数";
-            case "total_playtime_seconds" -> "サーバー参加合計時間";
-            case "photoshoot_participations" -> "撮影参加合計回数";
-            case "total_chats" -> "チャット合計回数";
-            case "w_count" -> "w合計数";
-            default -> statName;
-        };
+        nameManager.setGloballyViewedStat(statType);
     }
 
     private void sendHelp(CommandSender sender) {
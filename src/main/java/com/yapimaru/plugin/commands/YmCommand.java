@@ -2,6 +2,7 @@ package com.yapimaru.plugin.commands;
 
 import com.yapimaru.plugin.YAPIMARU_Plugin;
 import com.yapimaru.plugin.data.ParticipantData;
+import com.yapimaru.plugin.data.ParticipantListView;
 import com.yapimaru.plugin.listeners.GuiListener;
 import com.yapimaru.plugin.managers.*;
 import org.bukkit.Bukkit;
@@ -16,14 +17,10 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.SkullMeta;
 import org.jetbrains.annotations.NotNull;
 
-import java.text.Collator;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class YmCommand implements CommandExecutor {
     // GUI Titles
@@ -107,6 +104,25 @@ public class YmCommand implements CommandExecutor {
                     sender.sendMessage("§e/ans §7- 投票に回答");
                     sender.sendMessage("§e/stats §7- 統計情報");
                     return true;
+                case "teambench":
+                    if (!(sender instanceof Player p)) {
+                        sender.sendMessage("このコマンドはプレイヤーのみが実行できます。");
+                        return true;
+                    }
+                    int iterations = 100000;
+                    if (args.length > 1) {
+                        try {
+                            iterations = Math.max(1, Integer.parseInt(args[1]));
+                        } catch (NumberFormatException e) {
+                            sender.sendMessage("§c回数は数字で指定してください。");
+                            return true;
+                        }
+                    }
+                    sender.sendMessage("§6[チーム検索] §f" + plugin.getNameManager().benchmarkTeamLookup(p.getUniqueId(), iterations));
+                    return true;
+                case "skullcache":
+                    sender.sendMessage("§6[頭キャッシュ] §f" + plugin.getSkullCache().getStats());
+                    return true;
                 case "participant":
                     if (!(sender instanceof Player p)) {
                         sender.sendMessage("GUIはプレイヤーのみが開けます。");
@@ -185,18 +201,12 @@ public class YmCommand implements CommandExecutor {
         player.openInventory(gui);
     }
 
-    public void openParticipantListGui(Player player, String title, String listType, Collection<ParticipantData> sourceList, String... lore) {
+    public void openParticipantListGui(Player player, String title, String listType, ParticipantListView sourceList, String... lore) {
         FilterState state = playerFilterStates.computeIfAbsent(player.getUniqueId(), k -> new FilterState());
         int page = playerGuiPages.getOrDefault(player.getUniqueId(), 0);
 
-        List<ParticipantData> filteredList = sourceList.stream()
-                .filter(p -> {
-                    String name = p.getDisplayName();
-                    if (name.isEmpty()) return state.category == FilterCategory.OTHER;
-                    return state.predicate.test(name.charAt(0));
-                })
-                .sorted(getCustomComparator())
-                .collect(Collectors.toList());
+        // 並べ替えと絞り込みの結果は一覧が変わるまで使い回されるので、ページ送りは切り出すだけ
+        List<ParticipantData> filteredList = sourceList.filter(state.category.name() + ":" + state.subCategoryName, state.predicate, state.category == FilterCategory.OTHER);
 
         int totalPages = (int) Math.ceil((double) filteredList.size() / 45.0);
         page = Math.min(page, Math.max(0, totalPages - 1));
@@ -229,7 +239,7 @@ public class YmCommand implements CommandExecutor {
         player.openInventory(gui);
     }
 
-    public void openFilterGui(Player player, String previousTitle, Collection<ParticipantData> sourceList) {
+    public void openFilterGui(Player player, String previousTitle, ParticipantListView sourceList) {
         FilterState state = playerFilterStates.computeIfAbsent(player.getUniqueId(), k -> new FilterState());
         Inventory gui = Bukkit.createInventory(null, 36, FILTER_GUI_TITLE);
         fillBackground(gui);
@@ -238,16 +248,16 @@ public class YmCommand implements CommandExecutor {
 
         gui.setItem(10, createItem(Material.BOOK, "§f全て表示", state.category == FilterCategory.ALL, "§7全てのプレイヤーを表示します"));
 
-        if (sourceList.stream().anyMatch(p -> getSortCategory(p.getDisplayName()) == 0)) {
+        if (sourceList.anyInCategory(0)) {
             gui.setItem(12, createItem(Material.OAK_SIGN, "§f数字", state.category == FilterCategory.NUMERIC, "§7名前が数字で始まるプレイヤー"));
         }
-        if (sourceList.stream().anyMatch(p -> getSortCategory(p.getDisplayName()) == 1)) {
+        if (sourceList.anyInCategory(1)) {
             gui.setItem(13, createItem(Material.NAME_TAG, "§fA-Z", state.category == FilterCategory.ALPHABET, "§7名前がアルファベットで始まるプレイヤー"));
         }
-        if (sourceList.stream().anyMatch(p -> getSortCategory(p.getDisplayName()) == 2)) {
+        if (sourceList.anyInCategory(2)) {
             gui.setItem(14, createItem(Material.CHERRY_SAPLING, "§fあ-ん", state.category == FilterCategory.KANA, "§7名前がかな/カナで始まるプレイヤー"));
         }
-        if (sourceList.stream().anyMatch(p -> getSortCategory(p.getDisplayName()) == 3)) {
+        if (sourceList.anyInCategory(3)) {
             gui.setItem(16, createItem(Material.STRUCTURE_VOID, "§fその他", state.category == FilterCategory.OTHER, "§7上記以外の文字で始まるプレイヤー"));
         }
 
@@ -255,36 +265,36 @@ public class YmCommand implements CommandExecutor {
         player.openInventory(gui);
     }
 
-    public void openSubFilterGui(Player player, String previousTitle, FilterCategory category, Collection<ParticipantData> sourceList) {
+    public void openSubFilterGui(Player player, String previousTitle, FilterCategory category, ParticipantListView sourceList) {
         Inventory gui = Bukkit.createInventory(null, 27, FILTER_GUI_TITLE + " - " + category.name());
         fillBackground(gui);
         gui.setItem(4, createItem(Material.PAPER, "§f§l" + previousTitle, false, "§7のフィルターを設定します"));
 
         switch (category) {
             case NUMERIC:
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "0-4").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "0-4"))
                     gui.setItem(11, createItem(Material.OAK_SIGN, "0-4"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "5-9").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "5-9"))
                     gui.setItem(15, createItem(Material.OAK_SIGN, "5-9"));
                 break;
             case ALPHABET:
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "A-F").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "A-F"))
                     gui.setItem(11, createItem(Material.NAME_TAG, "A-F"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "G-O").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "G-O"))
                     gui.setItem(13, createItem(Material.NAME_TAG, "G-O"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "P-Z").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "P-Z"))
                     gui.setItem(15, createItem(Material.NAME_TAG, "P-Z"));
                 break;
             case KANA:
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "あ行・か行").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "あ行・か行"))
                     gui.setItem(10, createItem(Material.CHERRY_SAPLING, "あ行・か行"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "さ行・た行").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "さ行・た行"))
                     gui.setItem(11, createItem(Material.CHERRY_SAPLING, "さ行・た行"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "な行・は行").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "な行・は行"))
                     gui.setItem(12, createItem(Material.CHERRY_SAPLING, "な行・は行"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "ま行・や行").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "ま行・や行"))
                     gui.setItem(14, createItem(Material.CHERRY_SAPLING, "ま行・や行"));
-                if (sourceList.stream().anyMatch(p -> getPredicateForCategory(category, "ら行・わ行").test(p.getDisplayName().charAt(0))))
+                if (hasSubCategory(sourceList, category, "ら行・わ行"))
                     gui.setItem(15, createItem(Material.CHERRY_SAPLING, "ら行・わ行"));
                 break;
         }
@@ -293,6 +303,10 @@ public class YmCommand implements CommandExecutor {
         player.openInventory(gui);
     }
 
+    private boolean hasSubCategory(ParticipantListView sourceList, FilterCategory category, String subCategory) {
+        return sourceList.anyMatch(category.name() + ":" + subCategory, getPredicateForCategory(category, subCategory));
+    }
+
 
     // --- Other Sub-GUIs (Timer, PvP, etc.) ---
 
@@ -439,43 +453,33 @@ public class YmCommand implements CommandExecutor {
     }
 
     private ItemStack createParticipantHead(ParticipantData data, String... lore) {
-        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
-        SkullMeta meta = (SkullMeta) head.getItemMeta();
-        if(meta == null) return head;
-
         // Try to get an online player's texture first, then fall back to any associated UUID
-        Optional<Player> onlinePlayer = data.getAssociatedUuids().stream()
-                .map(Bukkit::getPlayer)
-                .filter(Objects::nonNull)
-                .findFirst();
-
-        if (onlinePlayer.isPresent()) {
-            meta.setOwningPlayer(onlinePlayer.get());
-        } else if (!data.getAssociatedUuids().isEmpty()) {
-            meta.setOwningPlayer(Bukkit.getOfflinePlayer(data.getAssociatedUuids().iterator().next()));
+        UUID owner = null;
+        for (UUID uuid : data.getAssociatedUuids()) {
+            if (Bukkit.getPlayer(uuid) != null) {
+                owner = uuid;
+                break;
+            }
+            if (owner == null) owner = uuid;
         }
 
-        meta.setDisplayName("§r" + data.getDisplayName());
         List<String> finalLore = new ArrayList<>(Arrays.asList(lore));
         finalLore.add("§8ID: " + data.getParticipantId());
-        meta.setLore(finalLore);
+        if (owner != null) {
+            return plugin.getSkullCache().getHead(owner, "§r" + data.getDisplayName(), finalLore);
+        }
 
+        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
+        ItemMeta meta = head.getItemMeta();
+        if(meta == null) return head;
+        meta.setDisplayName("§r" + data.getDisplayName());
+        meta.setLore(finalLore);
         head.setItemMeta(meta);
         return head;
     }
 
     private int getSortCategory(String name) {
-        if (name == null || name.isEmpty()) return 3;
-
-        char firstChar = name.toUpperCase().charAt(0);
-
-        if (Character.isDigit(firstChar)) return 0;
-        if (firstChar >= 'A' && firstChar <= 'Z') return 1;
-
-        String firstCharStr = String.valueOf(name.charAt(0));
-        if (Pattern.matches("^[\\u3040-\\u309F\\u30A0-\\u30FF\\uFF65-\\uFF9F]", firstCharStr)) return 2;
-
-        return 3;
+        return ParticipantListView.getSortCategory(name);
     }
 
     public Predicate<Character> getPredicateForCategory(FilterCategory category, String subCategory) {
@@ -498,26 +502,9 @@ public class YmCommand implements CommandExecutor {
                 case "な行・は行" -> "なにぬねのはひふへほばびぶべぼぱぴぷぺぽナニヌネノハヒフヘホバビブベボパピプペポﾏﾐﾑﾒﾓﾊﾋﾌﾍﾎﾊﾞﾋﾞﾌﾞﾍﾞﾎﾞﾊﾟﾋﾟﾌﾟﾍﾟﾎﾟ".indexOf(c) != -1;
                 case "ま行・や行" -> "まみむめもやゆよマミムメモヤユヨﾏﾐﾑﾒﾓﾔﾕﾖ".indexOf(c) != -1;
                 case "ら行・わ行" -> "らりるれろわをんラリルレロワヲンﾗﾘﾙﾚﾛﾜｦﾝ".indexOf(c) != -1;
-                default -> Pattern.matches("^[\\u3040-\\u309F\\u30A0-\\u30FF\\uFF65-\\uFF9F]", String.valueOf(c));
+                default -> getSortCategory(String.valueOf(c)) == 2;
             };
             case OTHER -> c -> getSortCategory(String.valueOf(c)) == 3;
         };
     }
-
-    private Comparator<ParticipantData> getCustomComparator() {
-        Collator collator = Collator.getInstance(Locale.JAPANESE);
-        return (p1, p2) -> {
-            String name1 = p1.getDisplayName().toUpperCase();
-            String name2 = p2.getDisplayName().toUpperCase();
-
-            int category1 = getSortCategory(name1);
-            int category2 = getSortCategory(name2);
-
-            if (category1 != category2) {
-                return Integer.compare(category1, category2);
-            }
-
-            return collator.compare(name1, name2);
-        };
-    }
-}
\ No newline at end of file
+}
@@ -18,7 +18,7 @@ import java.util.stream.Collectors;
 public class LinkTabCompleter implements TabCompleter {
 
     private final LinkManager linkManager;
-    private static final List<String> OP_COMMANDS = Arrays.asList("create", "delete", "list");
+    private static final List<String> OP_COMMANDS = Arrays.asList("create", "delete", "list", "export", "import", "backups", "restore", "bench");
     private static final List<String> MOD_COMMANDS = Arrays.asList("add", "remove", "info", "open", "addmod", "delmod", "mode", "autosort");
     private static final List<String> ON_OFF_ARGS = Arrays.asList("on", "off");
 
@@ -43,6 +43,7 @@ public class LinkTabCompleter implements TabCompleter {
             if (player.isOp() || linkManager.canManageAnyGroup(player.getUniqueId())) {
                 completions.addAll(MOD_COMMANDS);
             }
+            completions.add("particles");
             return StringUtil.copyPartialMatches(currentArg, completions, new ArrayList<>());
         }
 
@@ -51,7 +52,7 @@ public class LinkTabCompleter implements TabCompleter {
         // /link <subcommand> <groupName>
         if (args.length == 2) {
             switch (subCommand) {
-                case "add", "info", "open", "delete", "addmod", "delmod", "autosort" -> {
+                case "add", "info", "open", "delete", "export", "import", "backups", "restore", "addmod", "delmod", "autosort" -> {
                     List<String> manageableGroups = linkManager.getManageableGroupNames(player);
                     return StringUtil.copyPartialMatches(currentArg, manageableGroups, new ArrayList<>());
                 }
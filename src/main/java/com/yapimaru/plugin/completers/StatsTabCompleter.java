@@ -1,6 +1,7 @@
 package com.yapimaru.plugin.completers;
 
 import com.yapimaru.plugin.data.ParticipantData;
+import com.yapimaru.plugin.data.StatType;
 import com.yapimaru.plugin.managers.ParticipantManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -17,10 +18,9 @@ import java.util.stream.Collectors;
 public class StatsTabCompleter implements TabCompleter {
     private final ParticipantManager participantManager;
     private static final List<String> SUBCOMMANDS = Arrays.asList("player", "list");
-    private static final List<String> STAT_NAMES = Arrays.asList(
-            "total_deaths", "total_joins", "total_playtime_seconds",
-            "photoshoot_participations", "total_chats", "w_count"
-    );
+    private static final List<String> STAT_NAMES = Arrays.stream(StatType.values())
+            .map(StatType::getKey)
+            .collect(Collectors.toList());
 
     public StatsTabCompleter(ParticipantManager participantManager) {
         this.participantManager = participantManager;
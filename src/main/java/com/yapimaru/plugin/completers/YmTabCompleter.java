@@ -14,7 +14,7 @@ import java.util.List;
 
 public class YmTabCompleter implements TabCompleter {
     private final ParticipantManager participantManager;
-    private static final List<String> SUBCOMMANDS = Arrays.asList("reload", "list", "cmlist", "participant");
+    private static final List<String> SUBCOMMANDS = Arrays.asList("reload", "list", "cmlist", "participant", "skullcache", "teambench");
 
     public YmTabCompleter(ParticipantManager participantManager) {
         this.participantManager = participantManager;
@@ -1,5 +1,6 @@
 package com.yapimaru.plugin.data;
 
+import com.yapimaru.plugin.util.BlockKey;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -7,13 +8,28 @@ import org.bukkit.World;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class LinkedGroup {
+    // バイナリ形式のヘッダ ("YLNK" + バージョン)
+    private static final int BINARY_MAGIC = 0x594C4E4B;
+    private static final short BINARY_VERSION = 1;
+
+    // 素材名の順位を ordinal で引けるよう事前に計算しておく
+    private static final int[] MATERIAL_NAME_RANK = createMaterialNameRank();
+
+    private static final Comparator<ItemStack> SORT_ORDER = (a, b) -> {
+        int byType = Integer.compare(MATERIAL_NAME_RANK[a.getType().ordinal()], MATERIAL_NAME_RANK[b.getType().ordinal()]);
+        return byType != 0 ? byType : Integer.compare(b.getAmount(), a.getAmount());
+    };
+
     private final String name;
     private Inventory virtualInventory;
     private int size;
@@ -23,6 +39,7 @@ public class LinkedGroup {
     private final Map<Location, Boolean> breakableChests = new HashMap<>();
     private final Set<UUID> moderators = new HashSet<>();
     private boolean autoSort = true;
+    private int metadataVersion = 0; // 中身とチェストの追加以外 (設定・権限・容量など) が変わるたびに増やす
 
     public LinkedGroup(String name) {
         this.name = name;
@@ -35,8 +52,13 @@ public class LinkedGroup {
     public int getSize() { return size; }
     public Set<Location> getLinkedChests() { return Collections.unmodifiableSet(linkedChests); }
     public Set<UUID> getModerators() { return Collections.unmodifiableSet(moderators); }
+    public List<String> getChestLocationStrings() { return Collections.unmodifiableList(chestLocationStrings); }
+    public int getMetadataVersion() { return metadataVersion; }
     public boolean isAutoSortEnabled() { return autoSort; }
-    public void setAutoSort(boolean enabled) { this.autoSort = enabled; }
+    public void setAutoSort(boolean enabled) {
+        this.autoSort = enabled;
+        metadataVersion++;
+    }
 
 
     public void expandToLarge() {
@@ -45,6 +67,7 @@ public class LinkedGroup {
         Inventory newInventory = Bukkit.createInventory(null, this.size, "Virtual " + name);
         newInventory.setContents(this.virtualInventory.getContents());
         this.virtualInventory = newInventory;
+        metadataVersion++;
     }
 
     public void addChest(Location loc) {
@@ -57,8 +80,9 @@ public class LinkedGroup {
     public void removeChest(Location loc) {
         linkedChests.remove(loc);
         chestLocationStrings.remove(locationToString(loc));
-        readOnlyChests.remove(loc);
-        breakableChests.remove(loc);
+        if (readOnlyChests.remove(loc) != null | breakableChests.remove(loc) != null) {
+            metadataVersion++;
+        }
     }
 
     public boolean isReadOnly(Location loc) {
@@ -68,11 +92,13 @@ public class LinkedGroup {
     public boolean toggleReadOnly(Location loc) {
         boolean isNowReadOnly = !isReadOnly(loc);
         readOnlyChests.put(loc, isNowReadOnly);
+        metadataVersion++;
         return isNowReadOnly;
     }
 
     public void setReadOnly(Location loc, boolean readOnly) {
         readOnlyChests.put(loc, readOnly);
+        metadataVersion++;
     }
 
     public boolean isBreakable(Location loc) {
@@ -82,19 +108,23 @@ public class LinkedGroup {
     public boolean toggleBreakable(Location loc) {
         boolean isNowBreakable = !isBreakable(loc);
         breakableChests.put(loc, isNowBreakable);
+        metadataVersion++;
         return isNowBreakable;
     }
 
     public void setBreakable(Location loc, boolean breakable) {
         breakableChests.put(loc, breakable);
+        metadataVersion++;
     }
 
 
     public boolean addModerator(UUID uuid) {
+        metadataVersion++;
         return moderators.add(uuid);
     }
 
     public boolean removeModerator(UUID uuid) {
+        metadataVersion++;
         return moderators.remove(uuid);
     }
 
@@ -102,87 +132,319 @@ public class LinkedGroup {
         return moderators.contains(uuid);
     }
 
-    public void sortInventory() {
-        if (!this.autoSort) return;
-        List<ItemStack> items = Arrays.stream(virtualInventory.getContents())
-                .filter(Objects::nonNull)
-                .sorted(Comparator.comparing(ItemStack::getType, Comparator.comparing(Material::name))
-                        .thenComparing(ItemStack::getAmount, Comparator.reverseOrder()))
-                .collect(Collectors.toList());
+    // 自動整理。素材名順・個数の多い順に並べ、同じアイテムは1つのスタックにまとめてから1回で書き戻す。
+    // 並びが変わらなければ書き戻さない。内容が変わった場合は true を返す
+    public boolean sortInventory() {
+        if (!this.autoSort) return false;
+        ItemStack[] contents = virtualInventory.getContents();
+        List<ItemStack> items = new ArrayList<>(contents.length);
+        for (ItemStack item : contents) {
+            if (item != null && item.getType() != Material.AIR) items.add(item);
+        }
+        items.sort(SORT_ORDER);
 
-        virtualInventory.clear();
+        ItemStack[] sorted = new ItemStack[contents.length];
+        int filled = 0;
+        int runStart = 0; // 同じ素材が始まった位置
         for (ItemStack item : items) {
-            virtualInventory.addItem(item);
+            if (filled > 0 && sorted[filled - 1].getType() != item.getType()) {
+                runStart = filled;
+            }
+            int remaining = item.getAmount();
+            for (int i = runStart; i < filled && remaining > 0; i++) {
+                ItemStack stack = sorted[i];
+                int space = stack.getMaxStackSize() - stack.getAmount();
+                if (space <= 0 || !stack.isSimilar(item)) continue;
+                int moved = Math.min(space, remaining);
+                stack.setAmount(stack.getAmount() + moved);
+                remaining -= moved;
+            }
+            if (remaining > 0) {
+                ItemStack stack = item.clone();
+                stack.setAmount(remaining);
+                sorted[filled++] = stack;
+            }
         }
+
+        if (Arrays.equals(contents, sorted)) return false;
+        virtualInventory.setContents(sorted);
+        return true;
     }
 
+    private static int[] createMaterialNameRank() {
+        Material[] materials = Material.values();
+        Material[] byName = materials.clone();
+        Arrays.sort(byName, Comparator.comparing(Material::name));
+        int[] rank = new int[materials.length];
+        for (int i = 0; i < byName.length; i++) {
+            rank[byName[i].ordinal()] = i;
+        }
+        return rank;
+    }
 
-    public void save(File file) throws IOException {
-        YamlConfiguration config = new YamlConfiguration();
-        config.set("size", this.size);
-        config.set("auto-sort", this.autoSort);
-        // Save inventory
-        for (int i = 0; i < virtualInventory.getSize(); i++) {
-            ItemStack item = virtualInventory.getItem(i);
-            if (item != null) {
-                config.set("inventory." + i, item);
-            }
+
+    // メインスレッドで内容を複製する。返した Snapshot は別スレッドで書き出してよい
+    public Snapshot snapshot() {
+        ItemStack[] contents = virtualInventory.getContents();
+        ItemStack[] copy = new ItemStack[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] != null) copy[i] = contents[i].clone();
         }
-        // Save chest locations
-        config.set("chests", chestLocationStrings);
-        // Save read-only states
         List<String> readOnlyLocations = readOnlyChests.entrySet().stream()
                 .filter(Map.Entry::getValue)
                 .map(entry -> locationToString(entry.getKey()))
                 .collect(Collectors.toList());
-        config.set("readonly", readOnlyLocations);
-        // Save breakable states
-        List<String> breakableLocations = breakableChests.entrySet().stream()
+        List<String> unbreakableLocations = breakableChests.entrySet().stream()
                 .filter(entry -> !entry.getValue()) // false（破壊不能）のみ保存
                 .map(entry -> locationToString(entry.getKey()))
                 .collect(Collectors.toList());
-        config.set("unbreakable", breakableLocations);
-        // Save moderators
         List<String> modUuids = moderators.stream().map(UUID::toString).collect(Collectors.toList());
-        config.set("moderators", modUuids);
-
-        config.save(file);
+        return new Snapshot(name, size, autoSort, copy, new ArrayList<>(chestLocationStrings), readOnlyLocations, unbreakableLocations, modUuids);
     }
 
-    public void load(File file) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
-        this.size = config.getInt("size", 27);
-        this.autoSort = config.getBoolean("auto-sort", true);
-        this.virtualInventory = Bukkit.createInventory(null, this.size, "Virtual " + name);
-        // Load inventory
-        if (config.isConfigurationSection("inventory")) {
-            virtualInventory.clear();
-            for (String key : config.getConfigurationSection("inventory").getKeys(false)) {
-                int slot = Integer.parseInt(key);
-                if (slot < this.size) {
-                    ItemStack item = config.getItemStack("inventory." + key);
-                    virtualInventory.setItem(slot, item);
+    public static final class Snapshot {
+        private final String name;
+        private final int size;
+        private final boolean autoSort;
+        private final ItemStack[] contents;
+        private final List<String> chests;
+        private final List<String> readOnly;
+        private final List<String> unbreakable;
+        private final List<String> moderators;
+
+        private Snapshot(String name, int size, boolean autoSort, ItemStack[] contents, List<String> chests,
+                         List<String> readOnly, List<String> unbreakable, List<String> moderators) {
+            this.name = name;
+            this.size = size;
+            this.autoSort = autoSort;
+            this.contents = contents;
+            this.chests = chests;
+            this.readOnly = readOnly;
+            this.unbreakable = unbreakable;
+            this.moderators = moderators;
+        }
+
+        public String getName() { return name; }
+
+        public ItemStack[] getContents() { return contents; }
+
+        public String saveToString() {
+            return toYaml().saveToString();
+        }
+
+        public YamlConfiguration toYaml() {
+            YamlConfiguration config = new YamlConfiguration();
+            config.set("size", size);
+            config.set("auto-sort", autoSort);
+            // Save inventory
+            for (int i = 0; i < contents.length; i++) {
+                if (contents[i] != null) {
+                    config.set("inventory." + i, contents[i]);
+                }
+            }
+            config.set("chests", chests);
+            config.set("readonly", readOnly);
+            config.set("unbreakable", unbreakable);
+            config.set("moderators", moderators);
+            return config;
+        }
+
+        public void save(File file) throws IOException {
+            Files.write(file.toPath(), saveToString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        // 長さ付きのアイテムのバイト列と、座標を詰めた long で書き出す
+        public byte[] saveToBytes() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(BINARY_MAGIC);
+                out.writeShort(BINARY_VERSION);
+                out.writeInt(size);
+                out.writeBoolean(autoSort);
+
+                int itemCount = 0;
+                for (ItemStack item : contents) {
+                    if (item != null) itemCount++;
+                }
+                out.writeInt(itemCount);
+                for (int i = 0; i < contents.length; i++) {
+                    if (contents[i] == null) continue;
+                    byte[] itemBytes = serializeItem(contents[i]);
+                    out.writeShort(i);
+                    out.writeInt(itemBytes.length);
+                    out.write(itemBytes);
+                }
+
+                Map<String, Integer> worldIds = new LinkedHashMap<>();
+                for (List<String> list : List.of(chests, readOnly, unbreakable)) {
+                    for (String loc : list) {
+                        worldIds.putIfAbsent(loc.substring(0, loc.indexOf(',')), worldIds.size());
+                    }
+                }
+                out.writeInt(worldIds.size());
+                for (String worldName : worldIds.keySet()) {
+                    out.writeUTF(worldName);
+                }
+                writeBinaryLocations(out, chests, worldIds);
+                writeBinaryLocations(out, readOnly, worldIds);
+                writeBinaryLocations(out, unbreakable, worldIds);
+
+                out.writeInt(moderators.size());
+                for (String uuid : moderators) {
+                    UUID id = UUID.fromString(uuid);
+                    out.writeLong(id.getMostSignificantBits());
+                    out.writeLong(id.getLeastSignificantBits());
                 }
             }
+            return bytes.toByteArray();
         }
 
+        private static void writeBinaryLocations(DataOutputStream out, List<String> locations, Map<String, Integer> worldIds) throws IOException {
+            out.writeInt(locations.size());
+            for (String loc : locations) {
+                String[] parts = loc.split(",");
+                out.writeShort(worldIds.get(parts[0]));
+                out.writeLong(BlockKey.pack(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3])));
+            }
+        }
+    }
+
+    public void load(File file) {
+        load(YamlConfiguration.loadConfiguration(file));
+    }
+
+    public void load(YamlConfiguration config) {
+        apply(parse(config));
+    }
+
+    public void loadBinary(File file) throws IOException {
+        apply(parseBinary(file));
+    }
+
+    // 読み込んだ内容を反映する。インベントリの作成とワールドの解決を行うのでメインスレッドから呼ぶ
+    public void apply(Data data) {
+        metadataVersion++;
+        this.size = data.size;
+        this.autoSort = data.autoSort;
+        this.virtualInventory = Bukkit.createInventory(null, this.size, "Virtual " + name);
+        virtualInventory.setContents(data.contents);
+
         chestLocationStrings.clear();
-        chestLocationStrings.addAll(config.getStringList("chests"));
+        chestLocationStrings.addAll(data.chests);
 
         readOnlyChests.clear();
-        config.getStringList("readonly").forEach(s -> {
+        data.readOnly.forEach(s -> {
             Location loc = stringToLocation(s);
-            if(loc != null) readOnlyChests.put(loc, true);
+            if (loc != null) readOnlyChests.put(loc, true);
         });
 
         breakableChests.clear();
-        config.getStringList("unbreakable").forEach(s -> {
+        data.unbreakable.forEach(s -> {
             Location loc = stringToLocation(s);
-            if(loc != null) breakableChests.put(loc, false);
+            if (loc != null) breakableChests.put(loc, false);
         });
 
         moderators.clear();
-        config.getStringList("moderators").forEach(s -> moderators.add(UUID.fromString(s)));
+        moderators.addAll(data.moderators);
+    }
+
+    public static Data parse(YamlConfiguration config) {
+        Data data = new Data(config.getInt("size", 27), config.getBoolean("auto-sort", true));
+        if (config.isConfigurationSection("inventory")) {
+            for (String key : config.getConfigurationSection("inventory").getKeys(false)) {
+                data.setSlot(Integer.parseInt(key), config.getItemStack("inventory." + key));
+            }
+        }
+        data.chests.addAll(config.getStringList("chests"));
+        data.readOnly.addAll(config.getStringList("readonly"));
+        data.unbreakable.addAll(config.getStringList("unbreakable"));
+        config.getStringList("moderators").forEach(s -> data.moderators.add(UUID.fromString(s)));
+        return data;
+    }
+
+    public static Data parseBinary(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != BINARY_MAGIC) throw new IOException("Not a linked group file: " + file.getName());
+            short version = in.readShort();
+            if (version != BINARY_VERSION) throw new IOException("Unsupported linked group format version " + version + ": " + file.getName());
+
+            Data data = new Data(in.readInt(), in.readBoolean());
+            int itemCount = in.readInt();
+            for (int i = 0; i < itemCount; i++) {
+                int slot = in.readShort();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                data.setSlot(slot, deserializeItem(bytes));
+            }
+
+            String[] worldNames = new String[in.readInt()];
+            for (int i = 0; i < worldNames.length; i++) {
+                worldNames[i] = in.readUTF();
+            }
+            readBinaryLocations(in, worldNames, data.chests);
+            readBinaryLocations(in, worldNames, data.readOnly);
+            readBinaryLocations(in, worldNames, data.unbreakable);
+
+            int modCount = in.readInt();
+            for (int i = 0; i < modCount; i++) {
+                data.moderators.add(new UUID(in.readLong(), in.readLong()));
+            }
+            return data;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not read item in " + file.getName(), e);
+        }
+    }
+
+    private static void readBinaryLocations(DataInputStream in, String[] worldNames, List<String> locations) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String worldName = worldNames[in.readShort()];
+            long key = in.readLong();
+            locations.add(worldName + "," + BlockKey.unpackX(key) + "," + BlockKey.unpackY(key) + "," + BlockKey.unpackZ(key));
+        }
+    }
+
+    // ファイルから読み込んだだけの内容。インベントリやワールドに触れないので、読み込みスレッドで作って変更ログを再生してよい
+    public static final class Data {
+        private final int size;
+        private final boolean autoSort;
+        private final ItemStack[] contents;
+        private final List<String> chests = new ArrayList<>();
+        private final List<String> readOnly = new ArrayList<>();
+        private final List<String> unbreakable = new ArrayList<>();
+        private final Set<UUID> moderators = new HashSet<>();
+
+        private Data(int size, boolean autoSort) {
+            this.size = size;
+            this.autoSort = autoSort;
+            this.contents = new ItemStack[size];
+        }
+
+        public void setSlot(int slot, ItemStack item) {
+            if (slot < size) contents[slot] = item;
+        }
+
+        public void addChest(String loc) {
+            if (!chests.contains(loc)) chests.add(loc);
+        }
+
+        public void removeChest(String loc) {
+            chests.remove(loc);
+        }
+    }
+
+    public static ItemStack deserializeItem(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (ItemStack) in.readObject();
+        }
+    }
+
+    public static byte[] serializeItem(ItemStack item) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeObject(item);
+        }
+        return bytes.toByteArray();
     }
 
     public void initializeLocations() {
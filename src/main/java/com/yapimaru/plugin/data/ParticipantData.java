@@ -3,44 +3,66 @@ package com.yapimaru.plugin.data;
 import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 public class ParticipantData {
+    private static final Pattern INVALID_FILE_CHARS = Pattern.compile("[\\\\/:*?\"<>|]");
+
     private String baseName;
     private String linkedName;
+    // 名前から作る値は名前の変更時にだけ計算し直す
+    private volatile String participantId;
+    private volatile String displayName;
     private final Set<UUID> associatedUuids = new HashSet<>();
-    private final Map<String, Number> statistics = new HashMap<>();
+    private final long[] stats = new long[StatType.cachedValues().length]; // StatType.ordinal() で参照
+    private final Map<String, Object> unknownStatistics = new LinkedHashMap<>(); // スキーマ外のキーは値の型によらずそのまま保持する
+    private volatile boolean dirty = false; // 未保存の変更があるかどうか
 
     public ParticipantData(String baseName, String linkedName) {
         this.baseName = baseName;
         this.linkedName = linkedName;
-        initializeStats();
+        updateIdentity();
     }
 
     public ParticipantData(ConfigurationSection config) {
         this.baseName = config.getString("base_name", "");
         this.linkedName = config.getString("linked_name", "");
+        updateIdentity();
         config.getStringList("associated-uuids").forEach(uuidStr -> associatedUuids.add(UUID.fromString(uuidStr)));
 
         ConfigurationSection statsSection = config.getConfigurationSection("statistics");
         if (statsSection != null) {
             for (String key : statsSection.getKeys(false)) {
-                statistics.put(key, (Number) statsSection.get(key));
+                Object value = statsSection.get(key);
+                StatType type = StatType.fromKey(key);
+                if (type == null) {
+                    unknownStatistics.put(key, toPlainValue(value));
+                } else if (value instanceof Number number) {
+                    stats[type.ordinal()] = number.longValue();
+                } else if (value instanceof String text && text.trim().matches("-?\\d{1,18}")) {
+                    stats[type.ordinal()] = Long.parseLong(text.trim()); // 手作業で "12" のように書かれた値
+                }
             }
         }
-        initializeStats(); // 存在しない統計項目を0で初期化
     }
 
-    private void initializeStats() {
-        statistics.putIfAbsent("total_deaths", 0);
-        statistics.putIfAbsent("total_joins", 0);
-        statistics.putIfAbsent("total_playtime_seconds", 0L);
-        statistics.putIfAbsent("photoshoot_participations", 0);
-        statistics.putIfAbsent("total_chats", 0);
-        statistics.putIfAbsent("w_count", 0);
+    // 書き出しは別スレッドで行うので、読み込んだ設定のセクションは普通の Map に写しておく
+    private static Object toPlainValue(Object value) {
+        if (!(value instanceof ConfigurationSection section)) return value;
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String key : section.getKeys(false)) {
+            map.put(key, toPlainValue(section.get(key)));
+        }
+        return map;
+    }
+
+    private void updateIdentity() {
+        this.participantId = generateId(baseName, linkedName);
+        this.displayName = (linkedName != null && !linkedName.isEmpty()) ? linkedName + "(" + baseName + ")" : baseName;
     }
 
     public String getParticipantId() {
-        return generateId(this.baseName, this.linkedName);
+        return participantId;
     }
 
     public static String generateId(String baseName, String linkedName) {
@@ -51,21 +73,47 @@ public class ParticipantData {
             id = baseName;
         }
         // ファイル名として不正な文字をアンダースコアに置換
-        return id.replaceAll("[\\\\/:*?\"<>|]", "_");
+        return INVALID_FILE_CHARS.matcher(id).replaceAll("_");
     }
 
     public String getDisplayName() {
-        if (linkedName != null && !linkedName.isEmpty()) {
-            return linkedName + "(" + baseName + ")";
-        }
-        return baseName;
+        return displayName;
     }
 
     // Getters
     public String getBaseName() { return baseName; }
     public String getLinkedName() { return linkedName; }
     public Set<UUID> getAssociatedUuids() { return associatedUuids; }
-    public Map<String, Number> getStatistics() { return statistics; }
+
+    // 読み取り専用のビュー。YAMLへの書き出しや表示用
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        for (StatType type : StatType.cachedValues()) {
+            view.put(type.getKey(), stats[type.ordinal()]);
+        }
+        unknownStatistics.forEach(view::putIfAbsent);
+        return Collections.unmodifiableMap(view);
+    }
+
+    public long getStat(StatType type) {
+        return stats[type.ordinal()];
+    }
+
+    public void setStat(StatType type, long value) {
+        stats[type.ordinal()] = value;
+    }
+
+    public void addStat(StatType type, long amount) {
+        stats[type.ordinal()] += amount;
+    }
+
+    public void incrementStat(StatType type) {
+        stats[type.ordinal()]++;
+    }
+
+    public boolean isDirty() { return dirty; }
+    public void markDirty() { this.dirty = true; }
+    public void clearDirty() { this.dirty = false; }
 
     public void addAssociatedUuid(UUID uuid) {
         this.associatedUuids.add(uuid);
@@ -74,17 +122,9 @@ public class ParticipantData {
         this.associatedUuids.remove(uuid);
     }
 
-    public void incrementStat(String key) {
-        Number value = statistics.getOrDefault(key, 0);
-        if (value instanceof Long) {
-            statistics.put(key, value.longValue() + 1);
-        } else {
-            statistics.put(key, value.intValue() + 1);
-        }
-    }
-
     public void setFullName(String newBaseName, String newLinkedName) {
         this.baseName = newBaseName;
         this.linkedName = newLinkedName;
+        updateIdentity();
     }
 }
\ No newline at end of file
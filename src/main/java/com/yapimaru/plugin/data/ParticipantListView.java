@@ -0,0 +1,124 @@
+package com.yapimaru.plugin.data;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.*;
+import java.util.function.Predicate;
+
+// 参加者リストGUI用の並べ替え済みの一覧。
+// 並び順の計算 (分類と照合キー) は追加時に1度だけ行い、参加者の移動や改名のたびに該当の1件だけを入れ直す。
+// フィルターごとの結果は次に一覧が変わるまで使い回す
+public class ParticipantListView {
+
+    private final Collator collator = Collator.getInstance(Locale.JAPANESE);
+    private final List<Entry> entries = new ArrayList<>(); // 並べ替え済み
+    private final Map<ParticipantData, Entry> entryByData = new IdentityHashMap<>();
+    private final Map<String, List<ParticipantData>> filterResults = new HashMap<>();
+    private final int[] categoryCounts = new int[4];
+
+    // 0: 数字, 1: アルファベット, 2: かな/カナ, 3: その他
+    public static int getSortCategory(String name) {
+        if (name == null || name.isEmpty()) return 3;
+
+        char firstChar = Character.toUpperCase(name.charAt(0));
+        if (Character.isDigit(firstChar)) return 0;
+        if (firstChar >= 'A' && firstChar <= 'Z') return 1;
+
+        char c = name.charAt(0);
+        if ((c >= '぀' && c <= 'ゟ') || (c >= '゠' && c <= 'ヿ') || (c >= '･' && c <= 'ﾟ')) return 2;
+        return 3;
+    }
+
+    public void rebuild(Collection<ParticipantData> participants) {
+        entries.clear();
+        entryByData.clear();
+        Arrays.fill(categoryCounts, 0);
+        for (ParticipantData data : participants) {
+            Entry entry = new Entry(data, collator);
+            entries.add(entry);
+            entryByData.put(data, entry);
+            categoryCounts[entry.category]++;
+        }
+        entries.sort(null);
+        filterResults.clear();
+    }
+
+    public void add(ParticipantData data) {
+        if (entryByData.containsKey(data)) return;
+        Entry entry = new Entry(data, collator);
+        int index = Collections.binarySearch(entries, entry);
+        entries.add(index < 0 ? -index - 1 : index, entry);
+        entryByData.put(data, entry);
+        categoryCounts[entry.category]++;
+        filterResults.clear();
+    }
+
+    public void remove(ParticipantData data) {
+        Entry entry = entryByData.remove(data);
+        if (entry == null) return;
+        int index = Collections.binarySearch(entries, entry);
+        if (index < 0 || entries.get(index) != entry) {
+            index = entries.indexOf(entry); // 同じ名前が並んでいる場合
+        }
+        if (index >= 0) entries.remove(index);
+        categoryCounts[entry.category]--;
+        filterResults.clear();
+    }
+
+    // 名前が変わった参加者を並べ直す
+    public void update(ParticipantData data) {
+        if (!entryByData.containsKey(data)) return;
+        remove(data);
+        add(data);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // 表示名の1文字目で絞り込んだ一覧。名前が空の参加者は emptyNameMatches の場合だけ含める
+    public List<ParticipantData> filter(String key, Predicate<Character> predicate, boolean emptyNameMatches) {
+        String cacheKey = emptyNameMatches ? key + ":empty" : key;
+        List<ParticipantData> cached = filterResults.get(cacheKey);
+        if (cached != null) return cached;
+
+        List<ParticipantData> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            boolean matches = entry.firstChar == null ? emptyNameMatches : predicate.test(entry.firstChar);
+            if (matches) result.add(entry.data);
+        }
+        result = Collections.unmodifiableList(result);
+        filterResults.put(cacheKey, result);
+        return result;
+    }
+
+    public boolean anyMatch(String key, Predicate<Character> predicate) {
+        return !filter(key, predicate, false).isEmpty();
+    }
+
+    public boolean anyInCategory(int sortCategory) {
+        return categoryCounts[sortCategory] > 0;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final ParticipantData data;
+        private final int category;
+        private final CollationKey sortKey;
+        private final Character firstChar; // null = 名前が空
+
+        private Entry(ParticipantData data, Collator collator) {
+            this.data = data;
+            String name = data.getDisplayName();
+            String upperName = name.toUpperCase();
+            this.category = getSortCategory(upperName);
+            this.sortKey = collator.getCollationKey(upperName);
+            this.firstChar = name.isEmpty() ? null : name.charAt(0);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (category != other.category) return Integer.compare(category, other.category);
+            return sortKey.compareTo(other.sortKey);
+        }
+    }
+}
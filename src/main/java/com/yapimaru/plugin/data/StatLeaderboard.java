@@ -0,0 +1,169 @@
+package com.yapimaru.plugin.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 統計項目ごとの順位表。(値, 参加者ID) をキーとする order-statistic treap で、
+// 任意ページの取得と順位の問い合わせを O(log n) で行う
+public class StatLeaderboard {
+
+    private static final class Node {
+        private final long value;
+        private final String id;
+        private final ParticipantData data;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(long value, ParticipantData data) {
+            this.value = value;
+            this.id = data.getParticipantId();
+            this.data = data;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    public void insert(ParticipantData data, long value) {
+        Node node = new Node(value, data);
+        Node[] parts = split(root, value, node.id, false);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    public boolean remove(ParticipantData data, long value) {
+        String id = data.getParticipantId();
+        Node[] lower = split(root, value, id, false);   // [< key, >= key]
+        Node[] upper = split(lower[1], value, id, true); // [== key, > key]
+        boolean removed = upper[0] != null;
+        root = merge(lower[0], upper[1]);
+        return removed;
+    }
+
+    // 登録されている場合のみ値を更新する
+    public void update(ParticipantData data, long oldValue, long newValue) {
+        if (oldValue == newValue) return;
+        if (remove(data, oldValue)) {
+            insert(data, newValue);
+        }
+    }
+
+    // descending = true で値の大きい順
+    public List<ParticipantData> getRange(int start, int count, boolean descending) {
+        List<ParticipantData> result = new ArrayList<>(Math.max(0, count));
+        int total = size();
+        if (start < 0 || start >= total || count <= 0) return result;
+        int end = Math.min(total, start + count);
+        if (descending) {
+            // 降順の [start, end) は昇順の [total - end, total - start) を逆から辿ったもの
+            collectReverse(root, total - end, total - start, 0, result);
+        } else {
+            collect(root, start, end, 0, result);
+        }
+        return result;
+    }
+
+    // 同値は同順位 (1, 1, 3, ...) となる順位を返す
+    public int getRank(long value, boolean descending) {
+        return 1 + (descending ? countGreater(value) : countLess(value));
+    }
+
+    private int countLess(long value) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.value < value) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private int countGreater(long value) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.value > value) {
+                count += size(node.right) + 1;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    private void collect(Node node, int from, int to, int offset, List<ParticipantData> out) {
+        if (node == null) return;
+        int index = offset + size(node.left);
+        if (from < index) collect(node.left, from, to, offset, out);
+        if (index >= from && index < to) out.add(node.data);
+        if (index + 1 < to) collect(node.right, from, to, index + 1, out);
+    }
+
+    private void collectReverse(Node node, int from, int to, int offset, List<ParticipantData> out) {
+        if (node == null) return;
+        int index = offset + size(node.left);
+        if (index + 1 < to) collectReverse(node.right, from, to, index + 1, out);
+        if (index >= from && index < to) out.add(node.data);
+        if (from < index) collectReverse(node.left, from, to, offset, out);
+    }
+
+    private int compare(long value, String id, Node node) {
+        int result = Long.compare(value, node.value);
+        return result != 0 ? result : id.compareTo(node.id);
+    }
+
+    // inclusive = false: [< key, >= key] / inclusive = true: [<= key, > key]
+    private Node[] split(Node node, long value, String id, boolean inclusive) {
+        if (node == null) return new Node[]{null, null};
+        int cmp = compare(value, id, node);
+        boolean goesLeft = inclusive ? cmp >= 0 : cmp > 0; // node がキーより前に来るか
+        if (goesLeft) {
+            Node[] parts = split(node.right, value, id, inclusive);
+            node.right = parts[0];
+            recalc(node);
+            return new Node[]{node, parts[1]};
+        } else {
+            Node[] parts = split(node.left, value, id, inclusive);
+            node.left = parts[1];
+            recalc(node);
+            return new Node[]{parts[0], node};
+        }
+    }
+
+    private Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            recalc(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            recalc(b);
+            return b;
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void recalc(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
@@ -0,0 +1,46 @@
+package com.yapimaru.plugin.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum StatType {
+    TOTAL_DEATHS("total_deaths", "デス合計数", "デス合計"),
+    TOTAL_JOINS("total_joins", "サーバー入室合計回数", "サーバー入室合計回数"),
+    TOTAL_PLAYTIME_SECONDS("total_playtime_seconds", "サーバー参加合計時間", "サーバー参加合計時間"),
+    PHOTOSHOOT_PARTICIPATIONS("photoshoot_participations", "撮影参加合計回数", "撮影参加合計回数"),
+    TOTAL_CHATS("total_chats", "チャット合計回数", "チャット合計回数"),
+    W_COUNT("w_count", "w合計数", "w合計数");
+
+    private static final StatType[] VALUES = values();
+    private static final Map<String, StatType> BY_KEY = new HashMap<>();
+
+    static {
+        for (StatType type : VALUES) {
+            BY_KEY.put(type.key, type);
+        }
+    }
+
+    private final String key;
+    private final String displayName;
+    private final String comment; // YAMLファイルに書き出すコメント
+
+    StatType(String key, String displayName, String comment) {
+        this.key = key;
+        this.displayName = displayName;
+        this.comment = comment;
+    }
+
+    public String getKey() { return key; }
+    public String getDisplayName() { return displayName; }
+    public String getComment() { return comment; }
+
+    public static StatType fromKey(String key) {
+        if (key == null) return null;
+        return BY_KEY.get(key.toLowerCase());
+    }
+
+    // values() は呼び出すたびに配列をコピーするため、共有の配列を返す (変更しないこと)
+    static StatType[] cachedValues() {
+        return VALUES;
+    }
+}
@@ -2,7 +2,7 @@ package com.yapimaru.plugin.listeners;
 
 import com.yapimaru.plugin.YAPIMARU_Plugin;
 import com.yapimaru.plugin.commands.YmCommand;
-import com.yapimaru.plugin.data.ParticipantData;
+import com.yapimaru.plugin.data.ParticipantListView;
 import com.yapimaru.plugin.managers.*;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -14,7 +14,6 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -310,16 +309,16 @@ public class GuiListener implements Listener {
         return fullTitle;
     }
 
-    private Collection<ParticipantData> getParticipantListFromTitle(String title) {
+    private ParticipantListView getParticipantListFromTitle(String title) {
         return getParticipantList(ListType.valueOf(getListTypeFromTitle(title).toUpperCase()));
     }
 
     private enum ListType { ACTIVE, DISCHARGED }
 
-    private Collection<ParticipantData> getParticipantList(ListType type) {
+    private ParticipantListView getParticipantList(ListType type) {
         return switch (type) {
-            case ACTIVE -> participantManager.getActiveParticipants();
-            case DISCHARGED -> participantManager.getDischargedParticipants();
+            case ACTIVE -> participantManager.getActiveView();
+            case DISCHARGED -> participantManager.getDischargedView();
         };
     }
 
@@ -112,13 +112,7 @@ public class LinkListener implements Listener {
     public void onInventoryClick(InventoryClickEvent event) {
         Inventory topInventory = event.getView().getTopInventory();
         if (linkManager.isVirtualInventory(topInventory)) {
-            // 遅延させて更新をかけることで、クライアント側の描画と同期させる
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    linkManager.updateAllVirtualInventories(topInventory);
-                }
-            }.runTask(plugin);
+            linkManager.queueVirtualInventorySync(topInventory);
         }
     }
 
@@ -126,12 +120,7 @@ public class LinkListener implements Listener {
     public void onInventoryDrag(InventoryDragEvent event) {
         Inventory topInventory = event.getView().getTopInventory();
         if (linkManager.isVirtualInventory(topInventory)) {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    linkManager.updateAllVirtualInventories(topInventory);
-                }
-            }.runTask(plugin);
+            linkManager.queueVirtualInventorySync(topInventory);
         }
     }
 
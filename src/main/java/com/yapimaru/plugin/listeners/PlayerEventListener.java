@@ -37,6 +37,7 @@ public class PlayerEventListener implements Listener {
     private final WhitelistManager whitelistManager;
     private final PlayerRestrictionManager restrictionManager;
     private final ParticipantManager participantManager;
+    private final ChatStatsManager chatStatsManager;
     private final BukkitAudiences adventure;
     private final Map<UUID, Long> joinInvinciblePlayers = new ConcurrentHashMap<>();
     private final Map<UUID, BukkitRunnable> joinInvincibilityTasks = new ConcurrentHashMap<>();
@@ -49,11 +50,17 @@ public class PlayerEventListener implements Listener {
         this.whitelistManager = plugin.getWhitelistManager();
         this.restrictionManager = plugin.getRestrictionManager();
         this.participantManager = plugin.getParticipantManager();
+        this.chatStatsManager = plugin.getChatStatsManager();
         this.adventure = plugin.getAdventure();
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        // 起動時のデータ読み込みが終わるまで待つ (このイベントは非同期スレッドで呼ばれる)
+        if (!plugin.getStartupLoader().awaitReady(plugin.getConfig().getLong("startup.login-wait-seconds", 30L))) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, "§cサーバーの準備中です。しばらくしてから再度参加してください。");
+            return;
+        }
         String kickMessage = whitelistManager.checkLogin(event.getUniqueId());
         if (kickMessage != null) {
             event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_WHITELIST, kickMessage);
@@ -65,10 +72,14 @@ public class PlayerEventListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
         restrictionManager.applyModeToPlayer(player);
+        nameManager.handlePlayerJoin(player);
+        nameManager.refreshColorTag(player);
+        pvpManager.handlePlayerJoin(player);
 
         participantManager.recordLoginTime(player);
         participantManager.incrementJoins(player.getUniqueId());
         participantManager.handleAccountLinkOnJoin(player);
+        plugin.getSkullCache().warm(player);
 
         Bukkit.getScheduler().runTaskLater(plugin, () -> nameManager.updatePlayerName(player), 5L);
 
@@ -105,9 +116,8 @@ public class PlayerEventListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerChat(AsyncPlayerChatEvent event) {
-        participantManager.incrementChats(event.getPlayer().getUniqueId());
         int w_count = StringUtils.countMatches(event.getMessage(), "w");
-        participantManager.incrementWCount(event.getPlayer().getUniqueId(), w_count);
+        chatStatsManager.record(event.getPlayer().getUniqueId(), w_count);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -115,7 +125,7 @@ public class PlayerEventListener implements Listener {
         if (event.getMessage().toLowerCase().startsWith("/skin")) {
             return; // /skin コマンドは除外
         }
-        participantManager.incrementChats(event.getPlayer().getUniqueId());
+        chatStatsManager.record(event.getPlayer().getUniqueId(), 0);
     }
 
 
@@ -123,6 +133,7 @@ public class PlayerEventListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         participantManager.recordQuitTime(player);
+        nameManager.handlePlayerQuit(player);
         joinInvinciblePlayers.remove(player.getUniqueId());
         if(joinInvincibilityTasks.containsKey(player.getUniqueId())) {
             joinInvincibilityTasks.get(player.getUniqueId()).cancel();
@@ -256,7 +267,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
         if (pvpManager.getGameState() == PvpManager.GameState.IDLE) return;
-        if (pvpManager.isLocationInProtectedArea(event.getBlock().getLocation()) || pvpManager.isLocationInSpawnProtection(event.getBlock().getLocation())) {
+        if (pvpManager.isBlockInProtectedArea(event.getBlock()) || pvpManager.isBlockInSpawnProtection(event.getBlock())) {
             adventure.player(event.getPlayer()).sendMessage(Component.text("保護エリア内ではブロックを破壊できません。", NamedTextColor.RED));
             event.setCancelled(true);
         }
@@ -265,7 +276,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
         if (pvpManager.getGameState() == PvpManager.GameState.IDLE) return;
-        if (pvpManager.isLocationInProtectedArea(event.getBlock().getLocation()) || pvpManager.isLocationInSpawnProtection(event.getBlock().getLocation())) {
+        if (pvpManager.isBlockInProtectedArea(event.getBlock()) || pvpManager.isBlockInSpawnProtection(event.getBlock())) {
             adventure.player(event.getPlayer()).sendMessage(Component.text("保護エリア内ではブロックを設置できません。", NamedTextColor.RED));
             event.setCancelled(true);
         }
@@ -274,7 +285,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     public void onBucketEmpty(PlayerBucketEmptyEvent event) {
         if (pvpManager.getGameState() == PvpManager.GameState.IDLE) return;
-        if (pvpManager.isLocationInProtectedArea(event.getBlock().getLocation()) || pvpManager.isLocationInSpawnProtection(event.getBlock().getLocation())) {
+        if (pvpManager.isBlockInProtectedArea(event.getBlock()) || pvpManager.isBlockInSpawnProtection(event.getBlock())) {
             adventure.player(event.getPlayer()).sendMessage(Component.text("保護エリア内では液体を設置できません。", NamedTextColor.RED));
             event.setCancelled(true);
         }
@@ -283,7 +294,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     public void onBucketFill(PlayerBucketFillEvent event) {
         if (pvpManager.getGameState() == PvpManager.GameState.IDLE) return;
-        if (pvpManager.isLocationInProtectedArea(event.getBlock().getLocation()) || pvpManager.isLocationInSpawnProtection(event.getBlock().getLocation())) {
+        if (pvpManager.isBlockInProtectedArea(event.getBlock()) || pvpManager.isBlockInSpawnProtection(event.getBlock())) {
             adventure.player(event.getPlayer()).sendMessage(Component.text("保護エリア内から液体を汲むことはできません。", NamedTextColor.RED));
             event.setCancelled(true);
         }
@@ -292,7 +303,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     public void onBlockFromTo(BlockFromToEvent event) {
         if (pvpManager.getGameState() == PvpManager.GameState.IDLE) return;
-        if (pvpManager.isLocationInSpawnProtection(event.getToBlock().getLocation())) {
+        if (pvpManager.isBlockInSpawnProtection(event.getToBlock())) {
             event.setCancelled(true);
         }
     }
@@ -300,7 +311,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     public void onEntityExplode(EntityExplodeEvent event) {
         if (pvpManager.getGameState() == PvpManager.GameState.IDLE) return;
-        event.blockList().removeIf(block -> pvpManager.isLocationInSpawnProtection(block.getLocation()));
+        event.blockList().removeIf(pvpManager::isBlockInSpawnProtection);
     }
 
     @EventHandler
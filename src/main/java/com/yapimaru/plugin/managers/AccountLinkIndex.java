@@ -0,0 +1,147 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+// 参加者ファイルの accounts セクション (サブアカウントのUUID) から、サブアカウント → 本アカウントの参加者ID を引く索引。
+// 起動時の読み込み結果で作り、その後はフォルダを監視して変更のあったファイルだけ読み直す
+final class AccountLinkIndex {
+
+    private final YAPIMARU_Plugin plugin;
+    private final File dir;
+    private final Map<UUID, String> mainByAlt = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> altsByParticipant = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    AccountLinkIndex(YAPIMARU_Plugin plugin, File dir) {
+        this.plugin = plugin;
+        this.dir = dir;
+    }
+
+    static Set<UUID> readAccounts(ConfigurationSection config) {
+        ConfigurationSection accounts = config.getConfigurationSection("accounts");
+        if (accounts == null) return Set.of();
+        Set<UUID> uuids = new HashSet<>();
+        for (String key : accounts.getKeys(false)) {
+            try {
+                uuids.add(UUID.fromString(key));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return uuids;
+    }
+
+    String getMainParticipantId(UUID altUuid) {
+        return mainByAlt.get(altUuid);
+    }
+
+    synchronized void replaceAll(Map<String, Set<UUID>> accountsByParticipant) {
+        mainByAlt.clear();
+        altsByParticipant.clear();
+        accountsByParticipant.forEach(this::put);
+    }
+
+    synchronized void put(String participantId, Set<UUID> alts) {
+        remove(participantId);
+        if (alts.isEmpty()) return;
+        altsByParticipant.put(participantId, alts);
+        for (UUID alt : alts) {
+            mainByAlt.put(alt, participantId);
+        }
+    }
+
+    synchronized void remove(String participantId) {
+        Set<UUID> previous = altsByParticipant.remove(participantId);
+        if (previous == null) return;
+        for (UUID alt : previous) {
+            mainByAlt.remove(alt, participantId);
+        }
+    }
+
+    // 手作業で編集されたファイルを反映するため、フォルダの変更を別スレッドで監視する
+    void startWatching() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not watch participant folder for account links. Changes will apply after /yapimaru reload.", e);
+            return;
+        }
+        Thread thread = new Thread(this::watch, "YAPIMARU-AccountWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void close() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rescan();
+                        continue;
+                    }
+                    String fileName = event.context().toString();
+                    if (fileName.endsWith(".yml")) {
+                        reload(new File(dir, fileName));
+                    }
+                }
+                if (!key.reset()) return;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 停止
+        }
+    }
+
+    private void reload(File file) {
+        String participantId = file.getName().substring(0, file.getName().length() - ".yml".length());
+        if (!file.exists()) {
+            remove(participantId);
+            return;
+        }
+        YamlConfiguration config = tryLoad(file);
+        if (config != null) put(participantId, readAccounts(config));
+    }
+
+    // 読めなかった (手作業での編集途中など) 場合は null。今の索引はそのまま残し、次の変更で読み直す
+    private YamlConfiguration tryLoad(File file) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.load(file);
+            return config;
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.FINE, "Skipped account links of unreadable file " + file.getName(), e);
+            return null;
+        }
+    }
+
+    private void rescan() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".yml"));
+        if (files == null) return;
+        Set<String> present = new HashSet<>();
+        for (File file : files) {
+            present.add(file.getName().substring(0, file.getName().length() - ".yml".length()));
+            reload(file);
+        }
+        for (String participantId : new ArrayList<>(altsByParticipant.keySet())) {
+            if (!present.contains(participantId)) remove(participantId);
+        }
+    }
+}
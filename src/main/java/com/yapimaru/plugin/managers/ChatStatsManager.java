@@ -0,0 +1,77 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// 非同期チャットスレッドからはキューに積むだけにし、集計はメインスレッドでまとめて行う
+public class ChatStatsManager {
+
+    private static final long DRAIN_INTERVAL_TICKS = 20L;
+
+    private final YAPIMARU_Plugin plugin;
+    private final ParticipantManager participantManager;
+    private final Queue<ChatRecord> queue = new ConcurrentLinkedQueue<>();
+    private BukkitTask drainTask;
+
+    public ChatStatsManager(YAPIMARU_Plugin plugin, ParticipantManager participantManager) {
+        this.plugin = plugin;
+        this.participantManager = participantManager;
+        startDrainTask();
+    }
+
+    private void startDrainTask() {
+        drainTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }.runTaskTimer(plugin, DRAIN_INTERVAL_TICKS, DRAIN_INTERVAL_TICKS);
+    }
+
+    // どのスレッドからでも呼び出し可能 (ロックなし)
+    public void record(UUID uuid, int wCount) {
+        queue.offer(new ChatRecord(uuid, wCount));
+    }
+
+    // メインスレッド専用
+    public void drain() {
+        if (queue.isEmpty()) return;
+
+        Map<UUID, long[]> batch = new HashMap<>();
+        ChatRecord record;
+        while ((record = queue.poll()) != null) {
+            long[] totals = batch.computeIfAbsent(record.uuid, k -> new long[2]);
+            totals[0]++;
+            totals[1] += record.wCount;
+        }
+        for (Map.Entry<UUID, long[]> entry : batch.entrySet()) {
+            long[] totals = entry.getValue();
+            participantManager.addChatStats(entry.getKey(), (int) totals[0], totals[1]);
+        }
+    }
+
+    public void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        drain();
+    }
+
+    private static final class ChatRecord {
+        private final UUID uuid;
+        private final int wCount;
+
+        private ChatRecord(UUID uuid, int wCount) {
+            this.uuid = uuid;
+            this.wCount = wCount;
+        }
+    }
+}
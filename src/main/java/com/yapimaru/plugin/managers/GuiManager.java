@@ -16,11 +16,11 @@ import org.bukkit.potion.PotionEffectType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class GuiManager {
 
     private final NameManager nameManager;
+    private final SkullCache skullCache;
 
     // --- InventoryHolder Marker Interfaces ---
     public static class MainMenuHolder implements InventoryHolder { @NotNull @Override public Inventory getInventory() { return Bukkit.createInventory(this, 9); }}
@@ -65,8 +65,9 @@ public class GuiManager {
         TOGGLEABLE_EFFECTS = Collections.unmodifiableMap(effects);
     }
 
-    public GuiManager(NameManager nameManager) {
+    public GuiManager(NameManager nameManager, SkullCache skullCache) {
         this.nameManager = nameManager;
+        this.skullCache = skullCache;
     }
 
     public void openMainMenu(Player p) {
@@ -88,35 +89,16 @@ public class GuiManager {
 
         int page = playerTpGuiPages.get(p.getUniqueId());
 
-        Map<String, List<Player>> playersByColor = new LinkedHashMap<>();
-        List<Player> noColorPlayers = new ArrayList<>();
-
-        for (String colorName : NameManager.WOOL_COLOR_NAMES) {
-            playersByColor.put(colorName, new ArrayList<>());
-        }
-
-        for (Player target : Bukkit.getOnlinePlayers()) {
-            if (target.equals(p)) continue;
-            String playerColor = getPlayerColorName(target);
-            if (playerColor != null) {
-                playersByColor.get(playerColor).add(target);
-            } else {
-                noColorPlayers.add(target);
-            }
+        // 色ごとの名前順の一覧は NameManager が参加・退出・色の変更のたびに更新している。
+        // 表示する頭はこのページの分だけ作る
+        Map<String, List<Player>> playersByColor = nameManager.getTeamPlayers().getPlayersByColor();
+        int totalItems = 0;
+        for (List<Player> players : playersByColor.values()) {
+            int count = players.size() - (TeamPlayerIndex.indexOf(players, p) >= 0 ? 1 : 0);
+            if (count > 0) totalItems += 1 + count;
         }
-        playersByColor.put("none", noColorPlayers);
-
-        List<ItemStack> guiItems = new ArrayList<>();
-        playersByColor.forEach((color, players) -> {
-            if (!players.isEmpty()) {
-                guiItems.add(createTeamHeader(color));
-                players.stream()
-                        .sorted(Comparator.comparing(Player::getName))
-                        .forEach(player -> guiItems.add(createPlayerHead(p, player)));
-            }
-        });
 
-        int totalPages = Math.max(1, (int) Math.ceil((double) guiItems.size() / 45.0));
+        int totalPages = Math.max(1, (int) Math.ceil((double) totalItems / 45.0));
 
         if (page >= totalPages) {
             page = totalPages - 1;
@@ -126,12 +108,29 @@ public class GuiManager {
         String titleWithPage = TP_MENU_TITLE + " §8(" + (page + 1) + "/" + totalPages + ")";
         Inventory gui = Bukkit.createInventory(new TeleportMenuHolder(), 54, titleWithPage);
 
-        int startIndex = page * 45;
-        for (int i = 0; i < 45; i++) {
-            int itemIndex = startIndex + i;
-            if (itemIndex < guiItems.size()) {
-                gui.setItem(i, guiItems.get(itemIndex));
+        int skip = page * 45;
+        int slot = 0;
+        for (Map.Entry<String, List<Player>> entry : playersByColor.entrySet()) {
+            if (slot >= 45) break;
+            List<Player> players = entry.getValue();
+            int viewerIndex = TeamPlayerIndex.indexOf(players, p); // 自分は一覧に出さない
+            int count = players.size() - (viewerIndex >= 0 ? 1 : 0);
+            if (count == 0) continue;
+            if (skip >= 1 + count) {
+                skip -= 1 + count;
+                continue;
+            }
+
+            if (skip == 0) {
+                gui.setItem(slot++, createTeamHeader(entry.getKey()));
+            } else {
+                skip--;
+            }
+            for (int i = skip; i < count && slot < 45; i++) {
+                int index = viewerIndex >= 0 && i >= viewerIndex ? i + 1 : i;
+                gui.setItem(slot++, createPlayerHead(p, players.get(index)));
             }
+            skip = 0;
         }
 
         if (page > 0) {
@@ -213,26 +212,15 @@ public class GuiManager {
 
             ItemMeta itemMeta = item.getItemMeta();
             if (itemMeta != null && itemMeta.getDisplayName().contains("チームなし")) {
-                colorName = "none";
+                colorName = TeamPlayerIndex.NO_COLOR;
             }
 
-            final String finalColorName = colorName;
-            List<Player> teamPlayers = Bukkit.getOnlinePlayers().stream()
-                    .filter(pl -> {
-                        String playerColor = getPlayerColorName(pl);
-                        if ("none".equals(finalColorName)) {
-                            return playerColor == null;
-                        }
-                        return finalColorName.equalsIgnoreCase(playerColor);
-                    })
-                    .collect(Collectors.toList());
-
-            if (teamPlayers.isEmpty()) {
+            Player target = nameManager.getTeamPlayers().pickRandom(colorName);
+            if (target == null) {
                 p.sendMessage("§cテレポート対象のプレイヤーがチーム '" + colorName + "' にいません。");
                 return;
             }
 
-            Player target = teamPlayers.get(new Random().nextInt(teamPlayers.size()));
             p.teleport(target.getLocation());
             p.sendMessage("§aチーム '" + colorName + "' の " + target.getName() + " §aへランダムにテレポートしました。");
             p.closeInventory();
@@ -375,22 +363,11 @@ public class GuiManager {
     }
 
     private ItemStack createPlayerHead(Player viewer, Player target) {
-        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
-        SkullMeta meta = (SkullMeta) head.getItemMeta();
-        if (meta != null) {
-            meta.setOwningPlayer(target);
-            meta.setDisplayName("§r" + nameManager.getDisplayName(target.getUniqueId()));
-
-            TeleportMode currentMode = playerTpModes.getOrDefault(viewer.getUniqueId(), TeleportMode.TELEPORT_TO);
-            if (currentMode == TeleportMode.TELEPORT_TO) {
-                meta.setLore(Collections.singletonList("§eクリックでこのプレイヤーへテレポート"));
-            } else {
-                meta.setLore(Collections.singletonList("§bクリックでこのプレイヤーを召喚"));
-            }
-
-            head.setItemMeta(meta);
-        }
-        return head;
+        TeleportMode currentMode = playerTpModes.getOrDefault(viewer.getUniqueId(), TeleportMode.TELEPORT_TO);
+        List<String> lore = currentMode == TeleportMode.TELEPORT_TO
+                ? Collections.singletonList("§eクリックでこのプレイヤーへテレポート")
+                : Collections.singletonList("§bクリックでこのプレイヤーを召喚");
+        return skullCache.getHead(target.getUniqueId(), "§r" + nameManager.getDisplayName(target.getUniqueId()), lore);
     }
 
     private ItemStack createTeamHeader(String colorName) {
@@ -406,15 +383,6 @@ public class GuiManager {
         return createItem(woolMaterial, "§l" + colorName.toUpperCase() + " Team", "§7クリックでこのチームの誰かへTP");
     }
 
-    private String getPlayerColorName(Player player) {
-        for (String colorName : NameManager.WOOL_COLOR_NAMES) {
-            if (player.getScoreboardTags().contains(colorName)) {
-                return colorName;
-            }
-        }
-        return null;
-    }
-
     private void addEffectButton(Inventory gui, int slot, Material material, String name) {
         ItemStack item = createItem(material, "§b" + name);
         gui.setItem(slot, item);
@@ -0,0 +1,245 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+// 共有グループの操作ログを専用スレッドでまとめて書き込む。
+// グループごとのファイルは開いたままにし、一定量か一定時間ごとにフラッシュする。サイズが上限を超えたら .1, .2 ... にずらす
+final class LinkAuditLog {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int MAX_OPEN_FILES = 32;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000L;
+    private static final int FLUSH_THRESHOLD_CHARS = 16 * 1024;
+    private static final int ROTATED_FILES = 3;
+
+    private final YAPIMARU_Plugin plugin;
+    private final File logDir;
+    private final long maxFileBytes;
+    private final BlockingQueue<LogLine> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Queue<PendingDelete> pendingDeletes = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger droppedLines = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // 以下は書き込みスレッド専用
+    private final Map<String, LogFile> openFiles = new LinkedHashMap<>(16, 0.75f, true); // アクセス順 (古いものから閉じる)
+    private int unflushedChars = 0;
+    private long lastFlush = System.currentTimeMillis();
+
+    LinkAuditLog(YAPIMARU_Plugin plugin, File linkDir) {
+        this.plugin = plugin;
+        this.logDir = new File(linkDir, "logs");
+        this.maxFileBytes = Math.max(1L, plugin.getConfig().getLong("link-storage.log-rotate-size-kb", 1024L)) * 1024L;
+        this.thread = new Thread(this::run, "YAPIMARU-LinkAuditLog");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // どのスレッドからでも呼び出し可能。キューが一杯の場合は捨てて件数だけ数える
+    void log(String groupName, String actor, String action, String details) {
+        if (!queue.offer(new LogLine(sequence.incrementAndGet(), groupName, LocalDateTime.now(), actor, action, details))) {
+            droppedLines.incrementAndGet();
+        }
+    }
+
+    // 削除もキューに入れ、それまでに積まれた行と順序を揃える。
+    // キューが一杯なら別に取っておき、それより前に積まれた行をすべて書き終えてから削除する
+    void deleteLogs(String groupName) {
+        long deleteSequence = sequence.incrementAndGet();
+        if (!queue.offer(new LogLine(deleteSequence, groupName, null, null, null, null))) {
+            pendingDeletes.add(new PendingDelete(groupName, deleteSequence));
+        }
+    }
+
+    // キューに残っている分を書き出してからスレッドを止める
+    void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            plugin.getLogger().warning("Timed out while writing linked group logs. " + queue.size() + " lines were not written.");
+        }
+    }
+
+    private void run() {
+        List<LogLine> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                LogLine first = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            for (LogLine line : batch) {
+                processDeletesBefore(line.sequence);
+                if (line.time == null) {
+                    delete(line.groupName);
+                } else {
+                    write(line);
+                }
+            }
+            batch.clear();
+            if (queue.isEmpty()) {
+                processDeletesBefore(Long.MAX_VALUE);
+            }
+
+            int dropped = droppedLines.getAndSet(0);
+            if (dropped > 0) {
+                plugin.getLogger().warning("Linked group log queue was full. " + dropped + " lines were dropped.");
+            }
+            if (unflushedChars >= FLUSH_THRESHOLD_CHARS || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS) {
+                flushAll();
+            }
+        }
+        processDeletesBefore(Long.MAX_VALUE);
+        flushAll();
+        openFiles.values().forEach(LogFile::close);
+        openFiles.clear();
+    }
+
+    private void write(LogLine line) {
+        String text = String.format("[%s] [%s] %s: %s\n", TIMESTAMP_FORMAT.format(line.time), line.actor, line.action, line.details);
+        try {
+            LogFile file = open(line.groupName);
+            if (file.size >= maxFileBytes) {
+                rotate(line.groupName);
+                file = open(line.groupName);
+            }
+            file.writer.write(text);
+            file.size += text.length();
+            unflushedChars += text.length();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write to log file for group " + line.groupName, e);
+        }
+    }
+
+    private LogFile open(String groupName) throws IOException {
+        LogFile file = openFiles.get(groupName);
+        if (file != null) return file;
+
+        if (openFiles.size() >= MAX_OPEN_FILES) {
+            Iterator<LogFile> eldest = openFiles.values().iterator();
+            eldest.next().close();
+            eldest.remove();
+        }
+        logDir.mkdirs();
+        File path = getLogFile(groupName, 0);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path, true), StandardCharsets.UTF_8));
+        file = new LogFile(writer, path.length());
+        openFiles.put(groupName, file);
+        return file;
+    }
+
+    private void rotate(String groupName) throws IOException {
+        LogFile file = openFiles.remove(groupName);
+        if (file != null) file.close();
+        Files.deleteIfExists(getLogFile(groupName, ROTATED_FILES).toPath());
+        for (int i = ROTATED_FILES - 1; i >= 0; i--) {
+            File from = getLogFile(groupName, i);
+            if (from.exists()) {
+                Files.move(from.toPath(), getLogFile(groupName, i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    // キューに入らなかった削除のうち、sequence より前に要求されたものを行う
+    private void processDeletesBefore(long sequence) {
+        PendingDelete pending;
+        while ((pending = pendingDeletes.peek()) != null && pending.sequence < sequence) {
+            pendingDeletes.poll();
+            delete(pending.groupName);
+        }
+    }
+
+    private void delete(String groupName) {
+        LogFile file = openFiles.remove(groupName);
+        if (file != null) file.close();
+        for (int i = 0; i <= ROTATED_FILES; i++) {
+            getLogFile(groupName, i).delete();
+        }
+    }
+
+    private void flushAll() {
+        for (Map.Entry<String, LogFile> entry : openFiles.entrySet()) {
+            try {
+                entry.getValue().writer.flush();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not flush log file for group " + entry.getKey(), e);
+            }
+        }
+        unflushedChars = 0;
+        lastFlush = System.currentTimeMillis();
+    }
+
+    private File getLogFile(String groupName, int index) {
+        return new File(logDir, index == 0 ? groupName + ".log" : groupName + ".log." + index);
+    }
+
+    private static final class LogFile {
+        private final Writer writer;
+        private long size; // 書き込んだ文字数で近似したファイルサイズ
+
+        private LogFile(Writer writer, long size) {
+            this.writer = writer;
+            this.size = size;
+        }
+
+        private void close() {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static final class PendingDelete {
+        private final String groupName;
+        private final long sequence;
+
+        private PendingDelete(String groupName, long sequence) {
+            this.groupName = groupName;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class LogLine {
+        private final long sequence;
+        private final String groupName;
+        private final LocalDateTime time; // null ならログの削除
+        private final String actor;
+        private final String action;
+        private final String details;
+
+        private LogLine(long sequence, String groupName, LocalDateTime time, String actor, String action, String details) {
+            this.sequence = sequence;
+            this.groupName = groupName;
+            this.time = time;
+            this.actor = actor;
+            this.action = action;
+            this.details = details;
+        }
+    }
+}
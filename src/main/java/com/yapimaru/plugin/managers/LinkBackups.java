@@ -0,0 +1,242 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import com.yapimaru.plugin.data.LinkedGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.logging.Level;
+
+// 共有グループの差分バックアップ。
+// アイテムは内容のハッシュ名で backups/items/ に1度だけ保存し、各バックアップはスロットとハッシュの対応だけを持つ。
+// 内容が前回から変わっていないグループは書き出さない。一覧は backups/index.yml で管理する
+final class LinkBackups {
+
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final YAPIMARU_Plugin plugin;
+    private final File backupDir;
+    private final File itemDir;
+    private final File indexFile;
+    private final int keepPerGroup;
+
+    // 以下はすべて synchronized (this) で保護する
+    private final Map<String, List<BackupEntry>> index = new LinkedHashMap<>();
+    private final Set<String> storedItems = new HashSet<>();
+    private boolean indexLoaded = false;
+
+    LinkBackups(YAPIMARU_Plugin plugin, File linkDir) {
+        this.plugin = plugin;
+        this.backupDir = new File(linkDir, "backups");
+        this.itemDir = new File(backupDir, "items");
+        this.indexFile = new File(backupDir, "index.yml");
+        this.keepPerGroup = Math.max(1, plugin.getConfig().getInt("link-storage.backups-per-group", 24));
+    }
+
+    // メインスレッドで複製した内容を、非同期の1回の処理でまとめてバックアップする
+    void backupAsync(List<LinkedGroup.Snapshot> snapshots) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> backup(snapshots));
+    }
+
+    void deleteGroupAsync(String name) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> deleteGroup(name));
+    }
+
+    synchronized List<String> listBackupIds(String name) {
+        loadIndex();
+        List<String> ids = new ArrayList<>();
+        for (BackupEntry entry : index.getOrDefault(name, List.of())) {
+            ids.add(entry.id);
+        }
+        Collections.reverse(ids); // 新しい順
+        return ids;
+    }
+
+    // バックアップを通常のグループ形式 (YAML) に組み立て直して書き出す
+    synchronized boolean restoreTo(String name, String id, File target) throws IOException {
+        loadIndex();
+        BackupEntry found = null;
+        for (BackupEntry entry : index.getOrDefault(name, List.of())) {
+            if (entry.id.equals(id)) found = entry;
+        }
+        if (found == null) return false;
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(getManifestFile(name, id));
+        ConfigurationSection items = config.getConfigurationSection("items");
+        config.set("items", null);
+        if (items != null) {
+            for (String slot : items.getKeys(false)) {
+                ItemStack item = YamlConfiguration.loadConfiguration(getItemFile(items.getString(slot))).getItemStack("item");
+                if (item != null) config.set("inventory." + slot, item);
+            }
+        }
+        target.getParentFile().mkdirs();
+        config.save(target);
+        return true;
+    }
+
+    private synchronized void backup(List<LinkedGroup.Snapshot> snapshots) {
+        loadIndex();
+        String id = LocalDateTime.now().format(ID_FORMAT);
+        int written = 0;
+        boolean changed = false;
+        for (LinkedGroup.Snapshot snapshot : snapshots) {
+            try {
+                List<String> itemHashes = new ArrayList<>();
+                YamlConfiguration manifest = snapshot.toYaml();
+                manifest.set("inventory", null);
+                ItemStack[] contents = snapshot.getContents();
+                for (int slot = 0; slot < contents.length; slot++) {
+                    if (contents[slot] == null) continue;
+                    String hash = storeItem(contents[slot]);
+                    manifest.set("items." + slot, hash);
+                    itemHashes.add(hash);
+                }
+                String manifestText = manifest.saveToString();
+                String contentHash = sha256(manifestText);
+
+                List<BackupEntry> entries = index.computeIfAbsent(snapshot.getName(), k -> new ArrayList<>());
+                if (!entries.isEmpty() && entries.get(entries.size() - 1).hash.equals(contentHash)) {
+                    continue; // 前回から変更なし
+                }
+                File manifestFile = getManifestFile(snapshot.getName(), id);
+                manifestFile.getParentFile().mkdirs();
+                LinkStorage.writeAtomically(manifestFile, manifestText.getBytes(StandardCharsets.UTF_8));
+                entries.add(new BackupEntry(id, contentHash, itemHashes));
+                while (entries.size() > keepPerGroup) {
+                    BackupEntry oldest = entries.remove(0);
+                    Files.deleteIfExists(getManifestFile(snapshot.getName(), oldest.id).toPath());
+                }
+                written++;
+                changed = true;
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to create backup for group " + snapshot.getName(), e);
+            }
+        }
+        if (changed) {
+            removeUnusedItems();
+            saveIndex();
+        }
+        if (written > 0) {
+            plugin.getLogger().info("Backed up " + written + " of " + snapshots.size() + " linked groups (" + (snapshots.size() - written) + " unchanged).");
+        }
+    }
+
+    private synchronized void deleteGroup(String name) {
+        loadIndex();
+        List<BackupEntry> entries = index.remove(name);
+        if (entries == null) return;
+        for (BackupEntry entry : entries) {
+            getManifestFile(name, entry.id).delete();
+        }
+        File groupDir = new File(backupDir, name);
+        String[] remaining = groupDir.list();
+        if (remaining != null && remaining.length == 0) groupDir.delete();
+        removeUnusedItems();
+        saveIndex();
+    }
+
+    private String storeItem(ItemStack item) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("item", item);
+        String text = config.saveToString();
+        String hash = sha256(text);
+        if (!storedItems.contains(hash)) {
+            itemDir.mkdirs();
+            LinkStorage.writeAtomically(getItemFile(hash), text.getBytes(StandardCharsets.UTF_8));
+            storedItems.add(hash);
+        }
+        return hash;
+    }
+
+    // どのバックアップからも参照されなくなったアイテムを削除する
+    private void removeUnusedItems() {
+        Set<String> referenced = new HashSet<>();
+        for (List<BackupEntry> entries : index.values()) {
+            for (BackupEntry entry : entries) {
+                referenced.addAll(entry.itemHashes);
+            }
+        }
+        Iterator<String> iterator = storedItems.iterator();
+        while (iterator.hasNext()) {
+            String hash = iterator.next();
+            if (!referenced.contains(hash)) {
+                getItemFile(hash).delete();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void loadIndex() {
+        if (indexLoaded) return;
+        indexLoaded = true;
+        if (!indexFile.exists()) return;
+        ConfigurationSection groups = YamlConfiguration.loadConfiguration(indexFile).getConfigurationSection("groups");
+        if (groups == null) return;
+        for (String name : groups.getKeys(false)) {
+            ConfigurationSection groupSection = groups.getConfigurationSection(name);
+            if (groupSection == null) continue;
+            List<BackupEntry> entries = new ArrayList<>();
+            for (String id : groupSection.getKeys(false)) {
+                List<String> itemHashes = groupSection.getStringList(id + ".items");
+                entries.add(new BackupEntry(id, groupSection.getString(id + ".hash", ""), itemHashes));
+                storedItems.addAll(itemHashes);
+            }
+            index.put(name, entries);
+        }
+    }
+
+    private void saveIndex() {
+        YamlConfiguration config = new YamlConfiguration();
+        index.forEach((name, entries) -> entries.forEach(entry -> {
+            config.set("groups." + name + "." + entry.id + ".hash", entry.hash);
+            config.set("groups." + name + "." + entry.id + ".items", entry.itemHashes);
+        }));
+        try {
+            backupDir.mkdirs();
+            LinkStorage.writeAtomically(indexFile, config.saveToString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not save backup index", e);
+        }
+    }
+
+    private File getManifestFile(String name, String id) {
+        return new File(backupDir, name + "/" + id + ".yml");
+    }
+
+    private File getItemFile(String hash) {
+        return new File(itemDir, hash + ".yml");
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class BackupEntry {
+        private final String id;
+        private final String hash;
+        private final List<String> itemHashes;
+
+        private BackupEntry(String id, String hash, List<String> itemHashes) {
+            this.id = id;
+            this.hash = hash;
+            this.itemHashes = itemHashes;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.data.LinkedGroup;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// 共有グループの変更ログ (<グループ名>.journal)。
+// スロットの変更とチェストの追加・解除だけを追記し、読み込み時に保存済みの内容の上から再生する。
+// 各レコードは「その値にする」という形なので、同じレコードを2回再生しても結果は変わらない
+final class LinkJournal {
+
+    private static final byte SLOT = 1;
+    private static final byte CHEST_ADD = 2;
+    private static final byte CHEST_REMOVE = 3;
+
+    private LinkJournal() {
+    }
+
+    // メインスレッドで作り、書き込みスレッドで書き出す1回分の変更
+    static final class Batch {
+        private final Map<Integer, ItemStack> slots = new TreeMap<>(); // null = 空にする
+        private final List<String> addedChests = new ArrayList<>();
+        private final List<String> removedChests = new ArrayList<>();
+
+        void setSlot(int slot, ItemStack item) {
+            slots.put(slot, item == null ? null : item.clone());
+        }
+
+        void addChest(String loc) {
+            addedChests.add(loc);
+        }
+
+        void removeChest(String loc) {
+            removedChests.add(loc);
+        }
+
+        boolean isEmpty() {
+            return slots.isEmpty() && addedChests.isEmpty() && removedChests.isEmpty();
+        }
+
+        int size() {
+            return slots.size() + addedChests.size() + removedChests.size();
+        }
+
+        private byte[] toBytes() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                for (Map.Entry<Integer, ItemStack> entry : slots.entrySet()) {
+                    byte[] itemBytes = entry.getValue() == null ? new byte[0] : LinkedGroup.serializeItem(entry.getValue());
+                    out.writeByte(SLOT);
+                    out.writeShort(entry.getKey());
+                    out.writeInt(itemBytes.length);
+                    out.write(itemBytes);
+                }
+                for (String loc : addedChests) {
+                    out.writeByte(CHEST_ADD);
+                    out.writeUTF(loc);
+                }
+                for (String loc : removedChests) {
+                    out.writeByte(CHEST_REMOVE);
+                    out.writeUTF(loc);
+                }
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    // 追記して、ディスクへの書き込みが終わるまで待つ
+    static void append(File file, Batch batch) throws IOException {
+        byte[] data = batch.toBytes();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    // 読み込んだ内容の上に再生し、再生したレコード数を返す。書き込み途中で止まった末尾のレコードは無視する
+    static int replay(File file, LinkedGroup.Data data) throws IOException {
+        if (!file.exists()) return 0;
+        int applied = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int type = in.read();
+                if (type < 0) break;
+                switch (type) {
+                    case SLOT -> {
+                        int slot = in.readShort();
+                        byte[] itemBytes = new byte[in.readInt()];
+                        in.readFully(itemBytes);
+                        data.setSlot(slot, itemBytes.length == 0 ? null : LinkedGroup.deserializeItem(itemBytes));
+                    }
+                    case CHEST_ADD -> data.addChest(in.readUTF());
+                    case CHEST_REMOVE -> data.removeChest(in.readUTF());
+                    default -> throw new IOException("Unknown journal record " + type + " in " + file.getName());
+                }
+                applied++;
+            }
+        } catch (EOFException e) {
+            // 末尾の不完全なレコード
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not read item in " + file.getName(), e);
+        }
+        return applied;
+    }
+}
@@ -18,7 +18,6 @@ import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -28,15 +27,25 @@ public class LinkManager {
     private final YAPIMARU_Plugin plugin;
     private final BukkitAudiences adventure;
     private final Map<String, LinkedGroup> linkedGroups = new ConcurrentHashMap<>();
-    private final Map<Location, String> chestToGroupMap = new ConcurrentHashMap<>();
+    private final LinkedChestIndex chestIndex = new LinkedChestIndex();
+
+    // ホッパーによる搬送はメモリ上で集計し、一定間隔でログの書き込みと保存をまとめて行う
+    private final Map<String, HopperTally> pendingHopperTransfers = new HashMap<>();
+    private final Set<String> dirtyGroups = new LinkedHashSet<>();
 
     private final Map<UUID, String> pendingAdd = new ConcurrentHashMap<>();
     private final Map<UUID, Boolean> pendingRemove = new ConcurrentHashMap<>();
-    private final Map<Inventory, LinkedGroup> openVirtualInventories = new ConcurrentHashMap<>();
     private final Set<UUID> inLinkEditMode = new HashSet<>();
 
 
     private final File linkDir;
+    private final LinkStorage storage;
+    private final LinkBackups backups;
+    private final LinkAuditLog auditLog;
+    private final LinkViewers viewers;
+    private final LinkParticleRenderer particles;
+    private final LinkStorageBenchmark benchmark;
+    private boolean benchmarkRunning = false;
 
     public LinkManager(YAPIMARU_Plugin plugin) {
         this.plugin = plugin;
@@ -45,56 +54,68 @@ public class LinkManager {
         if (!linkDir.exists()) {
             linkDir.mkdirs();
         }
-        loadGroups();
-        startParticleTask();
+        this.storage = new LinkStorage(plugin, linkDir);
+        this.backups = new LinkBackups(plugin, linkDir);
+        this.auditLog = new LinkAuditLog(plugin, linkDir);
+        this.viewers = new LinkViewers(plugin);
+        this.particles = new LinkParticleRenderer(plugin, chestIndex, linkDir);
+        this.benchmark = new LinkStorageBenchmark(linkDir);
+        startFlushTask(); // 読み込みは StartupLoader から行う
+        particles.start();
         startBackupTask();
     }
 
     public boolean isVirtualInventory(Inventory inventory) {
-        return openVirtualInventories.containsKey(inventory);
+        return viewers.contains(inventory);
     }
 
 
-    public void loadGroups() {
-        File[] groupFiles = linkDir.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (groupFiles == null) return;
-
-        for (File file : groupFiles) {
-            try {
-                String groupName = file.getName().replace(".yml", "");
-                LinkedGroup group = new LinkedGroup(groupName);
-                group.load(file);
-                linkedGroups.put(groupName, group);
-                // マッピングはサーバー起動完了後に行う
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to load linked group file: " + file.getName(), e);
+    // StartupLoader のスレッドで全グループのファイルを並列に読み込み、メインスレッドで反映する処理を返す。
+    // 読み込みスレッドではファイルの中身を取り出すだけにし、インベントリの作成とワールドの解決は反映時に行う。
+    // 反映時にはワールドの読み込みが終わっているので、チェストの対応付けも同時に行う
+    public Runnable loadGroups() {
+        int[] replayed = {0};
+        List<Map.Entry<String, LinkedGroup.Data>> loaded = StartupLoader.parseAll(plugin, storage.listGroupNames(), groupName -> {
+            LinkedGroup.Data data = storage.read(groupName);
+            int records = storage.replayJournal(groupName, data);
+            synchronized (replayed) {
+                replayed[0] += records;
             }
-        }
-        plugin.getLogger().info("Loaded " + linkedGroups.size() + " linked groups from files.");
+            return Map.entry(groupName, data);
+        });
+        return () -> {
+            linkedGroups.clear();
+            for (Map.Entry<String, LinkedGroup.Data> entry : loaded) {
+                LinkedGroup group = new LinkedGroup(entry.getKey());
+                group.apply(entry.getValue());
+                linkedGroups.put(group.getName(), group);
+            }
+            initializeChestMappings();
+            plugin.getLogger().info("Loaded " + linkedGroups.size() + " linked groups from files (" + replayed[0] + " journal records replayed).");
+        };
     }
 
     public void initializeChestMappings() {
-        chestToGroupMap.clear();
+        chestIndex.clear();
         linkedGroups.forEach((groupName, group) -> {
             group.initializeLocations(); // 文字列からLocationオブジェクトへ変換
-            group.getLinkedChests().forEach(loc -> {
-                if (loc != null && loc.getWorld() != null) {
-                    chestToGroupMap.put(loc, groupName);
-                }
-            });
+            group.getLinkedChests().forEach(loc -> chestIndex.put(loc, group));
         });
     }
 
 
+    // 内容を複製して書き込みを予約する。実際の書き込みは LinkStorage のスレッドで行う
     public void saveGroup(String name) {
         LinkedGroup group = linkedGroups.get(name);
         if (group == null) return;
-        try {
-            File file = new File(linkDir, name + ".yml");
-            group.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save linked group: " + name, e);
-        }
+        storage.save(group);
+    }
+
+    public void shutdown() {
+        flushPendingChanges();
+        long timeoutSeconds = plugin.getConfig().getLong("link-storage.shutdown-timeout-seconds", 10L);
+        storage.shutdown(timeoutSeconds);
+        auditLog.shutdown(timeoutSeconds * 1000L);
     }
 
     public void createGroup(Player player, String name) {
@@ -102,7 +123,7 @@ public class LinkManager {
             adventure.player(player).sendMessage(Component.text("共有グループ「" + name + "」は既に存在します。", NamedTextColor.RED));
             return;
         }
-        if (!name.matches("^[a-zA-Z0-9_]+$")) {
+        if (!LinkStorage.GROUP_NAME.matcher(name).matches()) {
             adventure.player(player).sendMessage(Component.text("グループ名には英数字とアンダースコアしか使用できません。", NamedTextColor.RED));
             return;
         }
@@ -121,27 +142,136 @@ public class LinkManager {
         }
 
         LinkedGroup group = linkedGroups.remove(name);
-        group.getLinkedChests().forEach(chestToGroupMap::remove);
+        group.getLinkedChests().forEach(chestIndex::remove);
+        dirtyGroups.remove(name);
+        pendingHopperTransfers.remove(name);
 
         // Delete files
-        new File(linkDir, name + ".yml").delete();
-        File logFile = new File(linkDir, "logs/" + name + ".log");
-        if(logFile.exists()) logFile.delete();
-        File backupDir = new File(linkDir, "backups/" + name);
-        if(backupDir.exists()) {
-            File[] files = backupDir.listFiles();
-            if (files != null) {
-                for (File f : files) {
-                    f.delete();
-                }
-            }
-            backupDir.delete();
-        }
+        storage.delete(name);
+        auditLog.deleteLogs(name);
+        backups.deleteGroupAsync(name);
 
         adventure.player(player).sendMessage(Component.text("共有グループ「" + name + "」を削除しました。", NamedTextColor.GOLD));
         logInteraction(name, player.getName(), "GROUP_DELETE", "Group deleted");
     }
 
+    // 手作業での編集用に YAML 形式で links/export/ へ書き出す
+    public void exportGroup(Player player, String name) {
+        LinkedGroup group = linkedGroups.get(name);
+        if (group == null) {
+            adventure.player(player).sendMessage(Component.text("共有グループ「" + name + "」は存在しません。", NamedTextColor.RED));
+            return;
+        }
+        File exportDir = new File(linkDir, "export");
+        if (!exportDir.exists()) {
+            exportDir.mkdirs();
+        }
+        try {
+            group.snapshot().save(new File(exportDir, name + ".yml"));
+            adventure.player(player).sendMessage(Component.text("グループ「" + name + "」を links/export/" + name + ".yml に書き出しました。", NamedTextColor.GREEN));
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not export linked group: " + name, e);
+            adventure.player(player).sendMessage(Component.text("書き出しに失敗しました。コンソールを確認してください。", NamedTextColor.RED));
+        }
+    }
+
+    // links/export/<名前>.yml を読み込み、グループの内容を置き換える (存在しなければ作成)
+    public void importGroup(Player player, String name) {
+        if (!LinkStorage.GROUP_NAME.matcher(name).matches()) {
+            adventure.player(player).sendMessage(Component.text("グループ名には英数字とアンダースコアしか使用できません。", NamedTextColor.RED));
+            return;
+        }
+        File file = new File(linkDir, "export/" + name + ".yml");
+        if (!file.exists()) {
+            adventure.player(player).sendMessage(Component.text("links/export/" + name + ".yml が見つかりません。", NamedTextColor.RED));
+            return;
+        }
+
+        LinkedGroup group = linkedGroups.get(name);
+        if (group != null) {
+            group.getLinkedChests().forEach(chestIndex::remove);
+        } else {
+            group = new LinkedGroup(name);
+            linkedGroups.put(name, group);
+        }
+        group.load(file);
+        group.initializeLocations();
+        for (Location loc : group.getLinkedChests()) {
+            chestIndex.put(loc, group);
+        }
+
+        saveGroup(name);
+        adventure.player(player).sendMessage(Component.text("links/export/" + name + ".yml からグループ「" + name + "」を読み込みました。", NamedTextColor.GREEN));
+        logInteraction(name, player.getName(), "GROUP_IMPORT", file.getName());
+    }
+
+    public void listBackups(Player player, String name) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<String> ids = backups.listBackupIds(name);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (ids.isEmpty()) {
+                    adventure.player(player).sendMessage(Component.text("グループ「" + name + "」のバックアップはありません。", NamedTextColor.YELLOW));
+                    return;
+                }
+                adventure.player(player).sendMessage(Component.text("--- バックアップ一覧: " + name + " (新しい順) ---", NamedTextColor.GOLD));
+                ids.forEach(id -> adventure.player(player).sendMessage(Component.text("- " + id, NamedTextColor.AQUA)));
+            });
+        });
+    }
+
+    // バックアップを links/export/<名前>.yml に復元する。反映は /link import で行う
+    public void restoreBackup(Player player, String name, String id) {
+        File target = new File(linkDir, "export/" + name + ".yml");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            boolean restored;
+            try {
+                restored = backups.restoreTo(name, id, target);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not restore backup " + id + " of linked group: " + name, e);
+                restored = false;
+            }
+            final boolean success = restored;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (success) {
+                    adventure.player(player).sendMessage(Component.text("バックアップ " + id + " を links/export/" + name + ".yml に復元しました。/link import " + name + " で反映します。", NamedTextColor.GREEN));
+                } else {
+                    adventure.player(player).sendMessage(Component.text("バックアップ " + id + " の復元に失敗しました。", NamedTextColor.RED));
+                }
+            });
+        });
+    }
+
+    // 保存形式の比較。内容はメインスレッドで作り、書き込みと読み込みの計測は非同期で行う
+    public void benchmarkStorage(Player player, int groups, int slots) {
+        if (benchmarkRunning) {
+            adventure.player(player).sendMessage(Component.text("計測は既に実行中です。", NamedTextColor.RED));
+            return;
+        }
+        benchmarkRunning = true;
+        adventure.player(player).sendMessage(Component.text(groups + " グループ × " + slots + " スロットで計測しています...", NamedTextColor.YELLOW));
+        List<LinkedGroup.Snapshot> fixture = LinkStorageBenchmark.createFixture(groups, slots);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<String> result;
+            try {
+                result = benchmark.run(fixture);
+                plugin.getLogger().info("Link storage benchmark (" + groups + " groups x " + slots + " slots): " + String.join(", ", result));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Link storage benchmark failed", e);
+                result = null;
+            }
+            final List<String> lines = result;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                benchmarkRunning = false;
+                if (lines == null) {
+                    adventure.player(player).sendMessage(Component.text("計測に失敗しました。コンソールを確認してください。", NamedTextColor.RED));
+                    return;
+                }
+                adventure.player(player).sendMessage(Component.text("--- 保存形式の比較: " + groups + " グループ × " + slots + " スロット ---", NamedTextColor.GOLD));
+                lines.forEach(line -> adventure.player(player).sendMessage(Component.text(line, NamedTextColor.AQUA)));
+            });
+        });
+    }
+
     public void listGroups(Player player) {
         if (linkedGroups.isEmpty()) {
             adventure.player(player).sendMessage(Component.text("作成済みの共有グループはありません。", NamedTextColor.YELLOW));
@@ -196,7 +326,7 @@ public class LinkManager {
             Location left = ((Chest)doubleChest.getLeftSide()).getLocation();
             Location right = ((Chest)doubleChest.getRightSide()).getLocation();
 
-            if (chestToGroupMap.containsKey(left) || chestToGroupMap.containsKey(right)) {
+            if (chestIndex.contains(left) || chestIndex.contains(right)) {
                 adventure.player(player).sendMessage(Component.text("このチェストは既に他のグループにリンクされています。", NamedTextColor.RED));
                 return;
             }
@@ -206,20 +336,20 @@ public class LinkManager {
             }
             group.addChest(left);
             group.addChest(right);
-            chestToGroupMap.put(left, groupName);
-            chestToGroupMap.put(right, groupName);
+            chestIndex.put(left, group);
+            chestIndex.put(right, group);
             logInteraction(groupName, player.getName(), "CHEST_ADD_LARGE", loc.toString());
         } else { // Single chest
             if (group.getSize() == 54) {
                 adventure.player(player).sendMessage(Component.text("このグループはラージチェスト用です。単一のチェストはリンクできません。", NamedTextColor.RED));
                 return;
             }
-            if (chestToGroupMap.containsKey(loc)) {
+            if (chestIndex.contains(loc)) {
                 adventure.player(player).sendMessage(Component.text("このチェストは既に他のグループにリンクされています。", NamedTextColor.RED));
                 return;
             }
             group.addChest(loc);
-            chestToGroupMap.put(loc, groupName);
+            chestIndex.put(loc, group);
             logInteraction(groupName, player.getName(), "CHEST_ADD_SINGLE", loc.toString());
         }
 
@@ -229,20 +359,18 @@ public class LinkManager {
 
 
     private void removeChestFromGroup(Player player, Location loc) {
-        String groupName = chestToGroupMap.get(loc);
-        if (groupName == null) {
+        LinkedGroup group = chestIndex.get(loc);
+        if (group == null) {
             adventure.player(player).sendMessage(Component.text("このチェストはどのグループにもリンクされていません。", NamedTextColor.YELLOW));
             return;
         }
+        String groupName = group.getName();
 
-        if (!player.isOp() && !isModerator(player.getUniqueId(), groupName)) {
+        if (!player.isOp() && !group.isModerator(player.getUniqueId())) {
             adventure.player(player).sendMessage(Component.text("このチェストのリンクを解除する権限がありません。", NamedTextColor.RED));
             return;
         }
 
-        LinkedGroup group = linkedGroups.get(groupName);
-        if (group == null) return;
-
         Block block = loc.getBlock();
         if (block.getState() instanceof Chest) {
             InventoryHolder holder = ((Chest) block.getState()).getInventory().getHolder();
@@ -252,11 +380,11 @@ public class LinkManager {
                 Location right = ((Chest)doubleChest.getRightSide()).getLocation();
                 group.removeChest(left);
                 group.removeChest(right);
-                chestToGroupMap.remove(left);
-                chestToGroupMap.remove(right);
+                chestIndex.remove(left);
+                chestIndex.remove(right);
             } else {
                 group.removeChest(loc);
-                chestToGroupMap.remove(loc);
+                chestIndex.remove(loc);
             }
         }
 
@@ -294,33 +422,33 @@ public class LinkManager {
         String title = (loc == null) ? "共有(v): " + group.getName() : "共有: " + group.getName();
         Inventory virtualInv = Bukkit.createInventory(null, group.getSize(), title);
         virtualInv.setContents(group.getVirtualInventory().getContents());
-        openVirtualInventories.put(virtualInv, group);
+        viewers.open(virtualInv, group);
         player.openInventory(virtualInv);
     }
 
     public void handleVirtualInventoryClose(Player player, Inventory closedInventory) {
-        if (openVirtualInventories.containsKey(closedInventory)) {
-            LinkedGroup group = openVirtualInventories.remove(closedInventory);
-            if (group != null) {
-                ItemStack[] oldContents = group.getVirtualInventory().getContents();
-                ItemStack[] newContents = closedInventory.getContents();
-
+        LinkedGroup group = viewers.close(closedInventory);
+        if (group != null) {
+            ItemStack[] oldContents = group.getVirtualInventory().getContents();
+            ItemStack[] newContents = closedInventory.getContents();
+            boolean changed = viewers.consumeModified(group);
+            if (!Arrays.equals(oldContents, newContents)) {
                 logInventoryChanges(group.getName(), player.getName(), oldContents, newContents);
-
                 group.getVirtualInventory().setContents(newContents);
-                group.sortInventory();
-                saveGroup(group.getName());
+                changed = true;
             }
+            if (!changed) return; // 何も変わっていなければ整理も保存もしない
+
+            group.sortInventory();
+            saveGroup(group.getName());
         }
     }
 
     public void handleChestBreak(Player player, Location loc, boolean isCancelled) {
         if (isCancelled) return;
-        String groupName = chestToGroupMap.get(loc);
-        if (groupName == null) return;
-
-        LinkedGroup group = linkedGroups.get(groupName);
+        LinkedGroup group = chestIndex.get(loc);
         if (group == null) return;
+        String groupName = group.getName();
 
         if (!group.isBreakable(loc) && !player.isOp() && !isModerator(player.getUniqueId(), group.getName())) {
             // このメッセージはリスナー側で表示されるため、ここでは不要
@@ -337,11 +465,11 @@ public class LinkManager {
                 Location right = ((Chest)dc.getRightSide()).getLocation();
                 group.removeChest(left);
                 group.removeChest(right);
-                chestToGroupMap.remove(left);
-                chestToGroupMap.remove(right);
+                chestIndex.remove(left);
+                chestIndex.remove(right);
             } else {
                 group.removeChest(loc);
-                chestToGroupMap.remove(loc);
+                chestIndex.remove(loc);
             }
         }
 
@@ -352,42 +480,67 @@ public class LinkManager {
 
 
     public void handleHopperMove(InventoryMoveItemEvent event) {
-        Location sourceLoc = event.getSource().getLocation();
-        Location destLoc = event.getDestination().getLocation();
+        if (chestIndex.size() == 0) return; // リンク済みチェストが無ければ何もしない
 
-        LinkedGroup sourceGroup = getGroupFromChestLocation(sourceLoc);
-        LinkedGroup destGroup = getGroupFromChestLocation(destLoc);
+        LinkedGroup sourceGroup = chestIndex.get(event.getSource().getLocation());
+        LinkedGroup destGroup = chestIndex.get(event.getDestination().getLocation());
+        if (sourceGroup == null && destGroup == null) return;
 
-        if (sourceGroup == null && destGroup != null) {
-            event.setCancelled(true);
+        event.setCancelled(true);
+        if (sourceGroup == null) {
             ItemStack item = event.getItem();
             HashMap<Integer, ItemStack> remaining = destGroup.getVirtualInventory().addItem(item.clone());
             if (remaining.isEmpty()) {
                 event.getSource().removeItem(item.clone());
-                logInteraction(destGroup.getName(), "HOPPER", "ITEM_IN", item.getType() + " x" + item.getAmount());
-                saveGroup(destGroup.getName());
+                recordHopperTransfer(destGroup, true, item);
             }
         }
-        else if (sourceGroup != null && destGroup == null) {
-            event.setCancelled(true);
+        else if (destGroup == null) {
             ItemStack item = event.getItem();
             HashMap<Integer, ItemStack> remaining = event.getDestination().addItem(item.clone());
             if (remaining.isEmpty()) {
                 sourceGroup.getVirtualInventory().removeItem(item.clone());
-                logInteraction(sourceGroup.getName(), "HOPPER", "ITEM_OUT", item.getType() + " x" + item.getAmount());
-                saveGroup(sourceGroup.getName());
+                recordHopperTransfer(sourceGroup, false, item);
+            }
+        }
+    }
+
+    private void recordHopperTransfer(LinkedGroup group, boolean incoming, ItemStack item) {
+        HopperTally tally = pendingHopperTransfers.computeIfAbsent(group.getName(), k -> new HopperTally());
+        Map<Material, long[]> amounts = incoming ? tally.incoming : tally.outgoing;
+        amounts.computeIfAbsent(item.getType(), k -> new long[1])[0] += item.getAmount();
+        dirtyGroups.add(group.getName());
+    }
+
+    private void startFlushTask() {
+        long interval = Math.max(1L, plugin.getConfig().getLong("link-storage.flush-interval-ticks", 100L));
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                flushPendingChanges();
             }
+        }.runTaskTimer(plugin, interval, interval);
+    }
+
+    // 集計済みのホッパー搬送をログに書き出し、変更のあったグループを保存する
+    public void flushPendingChanges() {
+        if (!pendingHopperTransfers.isEmpty()) {
+            pendingHopperTransfers.forEach((groupName, tally) -> {
+                tally.incoming.forEach((type, amount) -> logInteraction(groupName, "HOPPER", "ITEM_IN", type + " x" + amount[0]));
+                tally.outgoing.forEach((type, amount) -> logInteraction(groupName, "HOPPER", "ITEM_OUT", type + " x" + amount[0]));
+            });
+            pendingHopperTransfers.clear();
         }
-        else if (sourceGroup != null && destGroup != null) {
-            event.setCancelled(true);
+        if (!dirtyGroups.isEmpty()) {
+            List<String> groupNames = new ArrayList<>(dirtyGroups);
+            dirtyGroups.clear();
+            groupNames.forEach(this::saveGroup);
         }
     }
 
 
     public LinkedGroup getGroupFromChestLocation(Location loc) {
-        if (loc == null) return null;
-        String groupName = chestToGroupMap.get(loc.getBlock().getLocation());
-        return groupName != null ? linkedGroups.get(groupName) : null;
+        return chestIndex.get(loc);
     }
 
     public void displayGroupInfo(Player player, String name) {
@@ -431,23 +584,31 @@ public class LinkManager {
         }
     }
 
+    public void toggleParticles(Player player) {
+        if (particles.toggle(player.getUniqueId())) {
+            adventure.player(player).sendMessage(Component.text("共有チェストの目印パーティクルを表示します。", NamedTextColor.AQUA));
+        } else {
+            adventure.player(player).sendMessage(Component.text("共有チェストの目印パーティクルを非表示にしました。", NamedTextColor.GOLD));
+        }
+    }
+
     public boolean isInLinkEditMode(Player player) {
         return inLinkEditMode.contains(player.getUniqueId());
     }
 
 
     public void toggleReadOnly(Player player, Location loc) {
-        String groupName = chestToGroupMap.get(loc);
-        if (groupName == null) {
+        LinkedGroup group = chestIndex.get(loc);
+        if (group == null) {
             adventure.player(player).sendMessage(Component.text("このチェストはリンクされていません。", NamedTextColor.YELLOW));
             return;
         }
+        String groupName = group.getName();
 
-        if (!player.isOp() && !isModerator(player.getUniqueId(), groupName)) {
+        if (!player.isOp() && !group.isModerator(player.getUniqueId())) {
             adventure.player(player).sendMessage(Component.text("このチェストの設定を変更する権限がありません。", NamedTextColor.RED));
             return;
         }
-        LinkedGroup group = linkedGroups.get(groupName);
 
         Block block = loc.getBlock();
         boolean isNowReadOnly = false;
@@ -470,17 +631,17 @@ public class LinkManager {
     }
 
     public void toggleBreakable(Player player, Location loc) {
-        String groupName = chestToGroupMap.get(loc);
-        if (groupName == null) {
+        LinkedGroup group = chestIndex.get(loc);
+        if (group == null) {
             adventure.player(player).sendMessage(Component.text("このチェストはリンクされていません。", NamedTextColor.YELLOW));
             return;
         }
+        String groupName = group.getName();
 
-        if (!player.isOp() && !isModerator(player.getUniqueId(), groupName)) {
+        if (!player.isOp() && !group.isModerator(player.getUniqueId())) {
             adventure.player(player).sendMessage(Component.text("このチェストの設定を変更する権限がありません。", NamedTextColor.RED));
             return;
         }
-        LinkedGroup group = linkedGroups.get(groupName);
 
         Block block = loc.getBlock();
         boolean isNowBreakable = false;
@@ -561,80 +722,27 @@ public class LinkManager {
                 .collect(Collectors.toList());
     }
 
-    public void updateAllVirtualInventories(Inventory topInventory) {
-        LinkedGroup group = openVirtualInventories.get(topInventory);
-        if (group == null) return;
-
-        group.getVirtualInventory().setContents(topInventory.getContents());
-        for (Inventory openInv : new ArrayList<>(openVirtualInventories.keySet())) {
-            if (openVirtualInventories.get(openInv).equals(group) && !openInv.equals(topInventory)) {
-                openInv.setContents(group.getVirtualInventory().getContents());
-            }
-        }
+    // 画面の変更は次のtickでまとめて、変わったスロットだけを他の画面へ反映する
+    public void queueVirtualInventorySync(Inventory topInventory) {
+        viewers.markChanged(topInventory);
     }
 
 
-    private void startParticleTask() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    chestToGroupMap.forEach((loc, groupName) -> {
-                        if (loc.getWorld() != null && loc.getWorld().equals(player.getWorld()) && loc.distanceSquared(player.getLocation()) < 100) {
-                            player.spawnParticle(Particle.HAPPY_VILLAGER, loc.clone().add(0.5, 0.5, 0.5), 1, 0.2, 0.2, 0.2, 0);
-                        }
-                    });
-                }
-            }
-        }.runTaskTimer(plugin, 100L, 20L);
-    }
-
+    // 内容の複製だけメインスレッドで行い、書き出しは LinkBackups が非同期でまとめて行う
     private void startBackupTask() {
         new BukkitRunnable() {
             @Override
             public void run() {
-                linkedGroups.forEach((name, group) -> {
-                    File backupDir = new File(linkDir, "backups/" + name);
-                    if (!backupDir.exists()) {
-                        backupDir.mkdirs();
-                    }
-                    try {
-                        String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-                        File backupFile = new File(backupDir, timestamp + ".yml");
-                        group.save(backupFile);
-
-                        File[] backups = backupDir.listFiles();
-                        if (backups != null && backups.length > 24) {
-                            Arrays.sort(backups, Comparator.comparingLong(File::lastModified));
-                            for (int i = 0; i < backups.length - 24; i++) {
-                                backups[i].delete();
-                            }
-                        }
-                    } catch (IOException e) {
-                        plugin.getLogger().log(Level.WARNING, "Failed to create backup for group " + name, e);
-                    }
-                });
+                List<LinkedGroup.Snapshot> snapshots = new ArrayList<>(linkedGroups.size());
+                linkedGroups.values().forEach(group -> snapshots.add(group.snapshot()));
+                backups.backupAsync(snapshots);
             }
-        }.runTaskTimerAsynchronously(plugin, 20 * 3600, 20 * 3600);
+        }.runTaskTimer(plugin, 20 * 3600, 20 * 3600);
     }
 
+    // 書き込みは LinkAuditLog のスレッドでまとめて行う
     private void logInteraction(String groupName, String actor, String action, String details) {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                File logDir = new File(linkDir, "logs");
-                if (!logDir.exists()) {
-                    logDir.mkdirs();
-                }
-                File logFile = new File(logDir, groupName + ".log");
-                try (java.io.FileWriter writer = new java.io.FileWriter(logFile, true)) {
-                    String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-                    writer.write(String.format("[%s] [%s] %s: %s\n", timestamp, actor, action, details));
-                } catch (IOException e) {
-                    plugin.getLogger().log(Level.WARNING, "Could not write to log file for group " + groupName, e);
-                }
-            }
-        }.runTaskAsynchronously(plugin);
+        auditLog.log(groupName, actor, action, details);
     }
 
     private void logInventoryChanges(String groupName, String playerName, ItemStack[] oldContents, ItemStack[] newContents) {
@@ -653,4 +761,9 @@ public class LinkManager {
             }
         }
     }
-}
\ No newline at end of file
+
+    private static final class HopperTally {
+        private final Map<Material, long[]> incoming = new EnumMap<>(Material.class);
+        private final Map<Material, long[]> outgoing = new EnumMap<>(Material.class);
+    }
+}
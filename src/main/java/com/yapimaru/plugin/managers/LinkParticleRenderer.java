@@ -0,0 +1,140 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+
+// リンク済みチェストの目印パーティクル。
+// プレイヤーの周囲のチャンクだけを調べ、1回に送る数に上限を設ける。
+// サーバーが重い間は表示の間隔を広げ、回復したら元に戻す
+final class LinkParticleRenderer {
+
+    private static final double RANGE = 10.0;
+    private static final double RANGE_SQUARED = RANGE * RANGE;
+    private static final long TICK_MILLIS = 50L;
+
+    private final YAPIMARU_Plugin plugin;
+    private final LinkedChestIndex chestIndex;
+    private final File optOutFile;
+    private final Set<UUID> optedOut = new HashSet<>();
+    private final long baseInterval;
+    private final long maxInterval;
+    private final int maxParticlesPerRun;
+    private final Location playerLoc = new Location(null, 0, 0, 0); // 使い回す
+
+    private long interval;
+    private long lastRunMillis;
+    private int nextPlayerIndex = 0;
+
+    LinkParticleRenderer(YAPIMARU_Plugin plugin, LinkedChestIndex chestIndex, File linkDir) {
+        this.plugin = plugin;
+        this.chestIndex = chestIndex;
+        // links/ の .yml はすべてグループとして読まれるので、設定はプラグインのフォルダに置く
+        this.optOutFile = new File(plugin.getDataFolder(), "link-particle-hidden.yml");
+        File oldFile = new File(linkDir, "particle-hidden.yml");
+        if (oldFile.exists() && !optOutFile.exists() && !oldFile.renameTo(optOutFile)) {
+            plugin.getLogger().warning("Could not move " + oldFile.getPath() + " to " + optOutFile.getPath());
+        }
+        this.baseInterval = Math.max(1L, plugin.getConfig().getLong("link-particles.interval-ticks", 20L));
+        this.maxInterval = Math.max(baseInterval, plugin.getConfig().getLong("link-particles.max-interval-ticks", 80L));
+        this.maxParticlesPerRun = Math.max(1, plugin.getConfig().getInt("link-particles.max-per-tick", 200));
+        this.interval = baseInterval;
+        loadOptOuts();
+    }
+
+    void start() {
+        lastRunMillis = System.currentTimeMillis();
+        Bukkit.getScheduler().runTaskLater(plugin, this::run, 100L);
+    }
+
+    // 表示を切り替え、表示するようになったら true を返す
+    boolean toggle(UUID playerId) {
+        boolean nowVisible = !optedOut.remove(playerId);
+        if (!nowVisible) optedOut.add(playerId);
+        saveOptOuts();
+        return nowVisible;
+    }
+
+    private void run() {
+        if (!plugin.isEnabled()) return;
+        adjustInterval();
+        if (chestIndex.size() > 0) {
+            render();
+        }
+        Bukkit.getScheduler().runTaskLater(plugin, this::run, interval);
+    }
+
+    // 前回からの経過時間で1tickあたりの平均時間を見積もり、20TPSを割っていれば間隔を倍にする
+    private void adjustInterval() {
+        long now = System.currentTimeMillis();
+        double millisPerTick = (double) (now - lastRunMillis) / interval;
+        lastRunMillis = now;
+        if (millisPerTick > TICK_MILLIS * 1.1) {
+            interval = Math.min(maxInterval, interval * 2);
+        } else if (millisPerTick < TICK_MILLIS * 1.02 && interval > baseInterval) {
+            interval = Math.max(baseInterval, interval / 2);
+        }
+    }
+
+    private void render() {
+        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        if (players.isEmpty()) return;
+        int[] budget = {maxParticlesPerRun};
+        // 上限に達したときに同じプレイヤーばかり表示されないよう、開始位置をずらす
+        int start = nextPlayerIndex % players.size();
+        for (int i = 0; i < players.size() && budget[0] > 0; i++) {
+            Player player = players.get((start + i) % players.size());
+            if (optedOut.contains(player.getUniqueId())) continue;
+            World world = player.getWorld();
+            if (!chestIndex.hasChestsIn(world)) continue;
+
+            player.getLocation(playerLoc);
+            double px = playerLoc.getX(), py = playerLoc.getY(), pz = playerLoc.getZ();
+            int minChunkX = (int) Math.floor(px - RANGE) >> 4, maxChunkX = (int) Math.floor(px + RANGE) >> 4;
+            int minChunkZ = (int) Math.floor(pz - RANGE) >> 4, maxChunkZ = (int) Math.floor(pz + RANGE) >> 4;
+            for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+                for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                    chestIndex.forEachInChunk(world, cx, cz, loc -> {
+                        if (budget[0] <= 0) return;
+                        double dx = loc.getBlockX() - px, dy = loc.getBlockY() - py, dz = loc.getBlockZ() - pz;
+                        if (dx * dx + dy * dy + dz * dz >= RANGE_SQUARED) return;
+                        player.spawnParticle(Particle.HAPPY_VILLAGER, loc.getBlockX() + 0.5, loc.getBlockY() + 0.5, loc.getBlockZ() + 0.5, 1, 0.2, 0.2, 0.2, 0);
+                        budget[0]--;
+                    });
+                }
+            }
+            nextPlayerIndex = (start + i + 1) % players.size();
+        }
+    }
+
+    private void loadOptOuts() {
+        if (!optOutFile.exists()) return;
+        for (String id : YamlConfiguration.loadConfiguration(optOutFile).getStringList("hidden")) {
+            try {
+                optedOut.add(UUID.fromString(id));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    private void saveOptOuts() {
+        YamlConfiguration config = new YamlConfiguration();
+        List<String> ids = new ArrayList<>();
+        optedOut.forEach(uuid -> ids.add(uuid.toString()));
+        config.set("hidden", ids);
+        try {
+            config.save(optOutFile);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not save " + optOutFile.getName(), e);
+        }
+    }
+}
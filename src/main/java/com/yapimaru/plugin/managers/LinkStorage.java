@@ -0,0 +1,268 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import com.yapimaru.plugin.data.LinkedGroup;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+// 共有グループの保存を専用スレッドで行う。
+// 中身の変更とチェストの追加・解除は前回からの差分を変更ログ (LinkJournal) に追記するだけにし、
+// 全体の書き出しは設定などが変わった時と、変更ログが一定量たまった時に行う。
+// 全体の保存要求は一定時間内のものをグループごとに最新の1件にまとめる
+final class LinkStorage {
+
+    static final Pattern GROUP_NAME = Pattern.compile("^[a-zA-Z0-9_]+$");
+
+    enum Format {
+        YAML(".yml"), BINARY(".dat");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    private final YAPIMARU_Plugin plugin;
+    private final File linkDir;
+    private final Format format;
+    private final long saveDelayMillis;
+    private final int compactAfterRecords;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Map<String, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Map<String, Long> writtenSequences = new HashMap<>(); // writeLock で保護
+    private final Map<String, SavedState> savedStates = new HashMap<>(); // メインスレッド専用
+
+    LinkStorage(YAPIMARU_Plugin plugin, File linkDir) {
+        this.plugin = plugin;
+        this.linkDir = linkDir;
+        this.format = "binary".equalsIgnoreCase(plugin.getConfig().getString("link-storage.format", "yaml")) ? Format.BINARY : Format.YAML;
+        this.saveDelayMillis = Math.max(0L, plugin.getConfig().getLong("link-storage.save-delay-millis", 1000L));
+        this.compactAfterRecords = Math.max(1, plugin.getConfig().getInt("link-storage.journal-compact-records", 1000));
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("YAPIMARU-LinkStorage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private File getGroupFile(String name, Format fileFormat) {
+        return new File(linkDir, name + fileFormat.extension);
+    }
+
+    private File getJournalFile(String name) {
+        return new File(linkDir, name + ".journal");
+    }
+
+    private Format otherFormat() {
+        return format == Format.YAML ? Format.BINARY : Format.YAML;
+    }
+
+    // 保存済みのグループ名 (どちらの形式でも)
+    Set<String> listGroupNames() {
+        Set<String> names = new LinkedHashSet<>();
+        File[] files = linkDir.listFiles((dir, fileName) -> fileName.endsWith(Format.YAML.extension) || fileName.endsWith(Format.BINARY.extension));
+        if (files == null) return names;
+        for (File file : files) {
+            String fileName = file.getName();
+            String name = fileName.substring(0, fileName.lastIndexOf('.'));
+            if (GROUP_NAME.matcher(name).matches()) { // グループ名として使えない名前は別用途のファイル
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    // 設定された形式のファイルを優先し、無ければもう一方の形式から読み込む (形式の切り替え時)。
+    // インベントリやワールドには触れないので、読み込みスレッドから呼んでよい
+    LinkedGroup.Data read(String name) throws IOException {
+        File file = getGroupFile(name, format);
+        Format fileFormat = format;
+        if (!file.exists()) {
+            fileFormat = otherFormat();
+            file = getGroupFile(name, fileFormat);
+        }
+        return fileFormat == Format.BINARY
+                ? LinkedGroup.parseBinary(file)
+                : LinkedGroup.parse(YamlConfiguration.loadConfiguration(file));
+    }
+
+    // 読み込んだ内容に変更ログを再生し、再生したレコード数を返す
+    int replayJournal(String name, LinkedGroup.Data data) throws IOException {
+        return LinkJournal.replay(getJournalFile(name), data);
+    }
+
+    // メインスレッドから呼ぶ
+    void save(LinkedGroup group) {
+        SavedState state = savedStates.get(group.getName());
+        if (state == null || state.group != group || state.metadataVersion != group.getMetadataVersion()
+                || state.contents.length != group.getVirtualInventory().getSize()
+                || state.journalRecords >= compactAfterRecords || pendingSaves.containsKey(group.getName())) {
+            saveFull(group);
+            return;
+        }
+
+        LinkJournal.Batch batch = new LinkJournal.Batch();
+        for (int slot = 0; slot < state.contents.length; slot++) {
+            ItemStack item = group.getVirtualInventory().getItem(slot);
+            if (!Objects.equals(item, state.contents[slot])) {
+                batch.setSlot(slot, item);
+                state.contents[slot] = item == null ? null : item.clone();
+            }
+        }
+        Set<String> chests = new HashSet<>(group.getChestLocationStrings());
+        for (String loc : chests) {
+            if (!state.chests.contains(loc)) batch.addChest(loc);
+        }
+        for (String loc : state.chests) {
+            if (!chests.contains(loc)) batch.removeChest(loc);
+        }
+        if (batch.isEmpty()) return;
+        state.chests = chests;
+        state.journalRecords += batch.size();
+
+        String name = group.getName();
+        executor.execute(() -> {
+            try {
+                LinkJournal.append(getJournalFile(name), batch);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not write journal for linked group: " + name, e);
+            }
+        });
+    }
+
+    // 全体を複製して書き込みを予約する。書き出した後に変更ログを消す
+    private void saveFull(LinkedGroup group) {
+        savedStates.put(group.getName(), new SavedState(group));
+        PendingSave pending = new PendingSave(group.snapshot(), sequence.incrementAndGet());
+        if (pendingSaves.put(group.getName(), pending) == null) {
+            schedule(group.getName(), saveDelayMillis);
+        }
+    }
+
+    // 保留中の保存を破棄し、書き込みスレッドの順番でファイルを削除する
+    void delete(String name) {
+        pendingSaves.remove(name);
+        savedStates.remove(name);
+        long deleteSequence = sequence.incrementAndGet();
+        executor.execute(() -> {
+            synchronized (writeLock) {
+                writtenSequences.put(name, deleteSequence);
+                try {
+                    Files.deleteIfExists(getGroupFile(name, Format.YAML).toPath());
+                    Files.deleteIfExists(getGroupFile(name, Format.BINARY).toPath());
+                    Files.deleteIfExists(getJournalFile(name).toPath());
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Could not delete linked group file: " + name, e);
+                }
+            }
+        });
+    }
+
+    // 保留中の保存をすべて即座に書き出し、最大 timeoutSeconds 秒まで完了を待つ
+    void shutdown(long timeoutSeconds) {
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        for (String name : pendingSaves.keySet()) {
+            executor.execute(() -> writePending(name));
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out while saving linked groups. Unsaved groups: " + pendingSaves.keySet());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void schedule(String name, long delayMillis) {
+        try {
+            executor.schedule(() -> writePending(name), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            writePending(name); // 停止処理後に呼ばれた場合はその場で書き出す
+        }
+    }
+
+    private void writePending(String name) {
+        PendingSave pending = pendingSaves.remove(name);
+        if (pending == null) return;
+        try {
+            byte[] data = format == Format.BINARY
+                    ? pending.snapshot.saveToBytes()
+                    : pending.snapshot.saveToString().getBytes(StandardCharsets.UTF_8);
+            synchronized (writeLock) {
+                // 古い内容で新しいファイルを上書きしない
+                Long written = writtenSequences.get(name);
+                if (written != null && written > pending.sequence) return;
+                writeAtomically(getGroupFile(name, format), data);
+                Files.deleteIfExists(getGroupFile(name, otherFormat()).toPath()); // 古い形式のファイルは残さない
+                Files.deleteIfExists(getJournalFile(name).toPath()); // 全体に含まれたので不要
+                writtenSequences.put(name, pending.sequence);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save linked group: " + name, e);
+        }
+    }
+
+    static void writeAtomically(File file, byte[] data) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        Files.write(tempFile.toPath(), data);
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // 最後に書き出した (または変更ログに記録した) 時点の内容
+    private static final class SavedState {
+        private final LinkedGroup group;
+        private final int metadataVersion;
+        private final ItemStack[] contents;
+        private Set<String> chests;
+        private int journalRecords = 0;
+
+        private SavedState(LinkedGroup group) {
+            this.group = group;
+            this.metadataVersion = group.getMetadataVersion();
+            ItemStack[] current = group.getVirtualInventory().getContents();
+            this.contents = new ItemStack[current.length];
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != null) contents[i] = current[i].clone();
+            }
+            this.chests = new HashSet<>(group.getChestLocationStrings());
+        }
+    }
+
+    private static final class PendingSave {
+        private final LinkedGroup.Snapshot snapshot;
+        private final long sequence;
+
+        private PendingSave(LinkedGroup.Snapshot snapshot, long sequence) {
+            this.snapshot = snapshot;
+            this.sequence = sequence;
+        }
+    }
+}
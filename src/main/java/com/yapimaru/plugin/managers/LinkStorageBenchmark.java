@@ -0,0 +1,139 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.data.LinkedGroup;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+// /link bench 用。同じ内容のグループを YAML とバイナリの両方で links/bench/ に書き出し、
+// 書き込みと読み込み (起動時と同じ parse / parseBinary) にかかった時間とファイルサイズを比べる。
+// 乱数の種を固定しているので、同じ引数なら毎回同じ内容になる
+final class LinkStorageBenchmark {
+
+    private static final long SEED = 20240601L;
+
+    private final File benchDir;
+
+    LinkStorageBenchmark(File linkDir) {
+        this.benchDir = new File(linkDir, "bench");
+    }
+
+    // メインスレッドで呼ぶ。groups 個のグループに、先頭から slots 個のスロットまでアイテムを詰める
+    static List<LinkedGroup.Snapshot> createFixture(int groups, int slots) {
+        Random random = new Random(SEED);
+        Material[] materials = Arrays.stream(Material.values())
+                .filter(material -> !material.name().startsWith("LEGACY_") && material.isItem() && !material.isAir())
+                .toArray(Material[]::new);
+
+        List<LinkedGroup.Snapshot> snapshots = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            LinkedGroup group = new LinkedGroup("bench_" + g);
+            if (slots > group.getSize()) group.expandToLarge();
+            for (int slot = 0; slot < slots; slot++) {
+                ItemStack item = new ItemStack(materials[random.nextInt(materials.length)]);
+                item.setAmount(1 + random.nextInt(item.getMaxStackSize()));
+                if (slot % 4 == 0) { // 名前と説明付きのアイテムも混ぜる
+                    ItemMeta meta = item.getItemMeta();
+                    if (meta != null) {
+                        meta.setDisplayName("Bench item " + g + "-" + slot);
+                        meta.setLore(List.of("group " + g, "slot " + slot));
+                        item.setItemMeta(meta);
+                    }
+                }
+                group.getVirtualInventory().setItem(slot, item);
+            }
+            snapshots.add(group.snapshot());
+        }
+        return snapshots;
+    }
+
+    // 非同期で呼ぶ。終わったら書き出したファイルは消す
+    List<String> run(List<LinkedGroup.Snapshot> snapshots) throws IOException {
+        File yamlDir = new File(benchDir, "yaml");
+        File binaryDir = new File(benchDir, "binary");
+        deleteDirectory(benchDir);
+        yamlDir.mkdirs();
+        binaryDir.mkdirs();
+        try {
+            long start = System.nanoTime();
+            for (LinkedGroup.Snapshot snapshot : snapshots) {
+                Files.write(new File(yamlDir, snapshot.getName() + ".yml").toPath(), snapshot.saveToString().getBytes(StandardCharsets.UTF_8));
+            }
+            long yamlWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (LinkedGroup.Snapshot snapshot : snapshots) {
+                Files.write(new File(binaryDir, snapshot.getName() + ".dat").toPath(), snapshot.saveToBytes());
+            }
+            long binaryWrite = System.nanoTime() - start;
+
+            // 1回目は JIT とファイルキャッシュを温めるために捨てる
+            loadYaml(yamlDir);
+            loadBinary(binaryDir);
+            long yamlLoad = loadYaml(yamlDir);
+            long binaryLoad = loadBinary(binaryDir);
+
+            return List.of(
+                    "YAML: 書き込み " + millis(yamlWrite) + " / 読み込み " + millis(yamlLoad) + " / " + kilobytes(directorySize(yamlDir)),
+                    "バイナリ: 書き込み " + millis(binaryWrite) + " / 読み込み " + millis(binaryLoad) + " / " + kilobytes(directorySize(binaryDir)),
+                    String.format("読み込みはバイナリが YAML の %.2f 倍速", (double) yamlLoad / Math.max(1L, binaryLoad)));
+        } finally {
+            deleteDirectory(benchDir);
+        }
+    }
+
+    private static long loadYaml(File dir) {
+        long start = System.nanoTime();
+        for (File file : listFiles(dir)) {
+            LinkedGroup.parse(YamlConfiguration.loadConfiguration(file));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long loadBinary(File dir) throws IOException {
+        long start = System.nanoTime();
+        for (File file : listFiles(dir)) {
+            LinkedGroup.parseBinary(file);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static File[] listFiles(File dir) {
+        File[] files = dir.listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    private static long directorySize(File dir) {
+        long total = 0;
+        for (File file : listFiles(dir)) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    private static void deleteDirectory(File dir) throws IOException {
+        for (File file : listFiles(dir)) {
+            if (file.isDirectory()) {
+                deleteDirectory(file);
+            } else {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(dir.toPath());
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+
+    private static String kilobytes(long bytes) {
+        return String.format("%.1fKB", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import com.yapimaru.plugin.data.LinkedGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+// 共有グループの仮想インベントリを開いている画面の一覧と、画面どうしの同期。
+// 操作のあった画面を記録しておき、1tickに1回、グループごとに変わったスロットだけを本体と他の画面へ反映する
+final class LinkViewers {
+
+    private final YAPIMARU_Plugin plugin;
+    private final Map<Inventory, LinkedGroup> views = new HashMap<>();
+    private final Map<LinkedGroup, Set<Inventory>> viewersByGroup = new HashMap<>();
+    private final Map<LinkedGroup, Set<Inventory>> changedViews = new LinkedHashMap<>();
+    private final Set<LinkedGroup> modifiedGroups = new HashSet<>(); // 本体の内容を書き換えたグループ
+    private BukkitTask syncTask;
+
+    LinkViewers(YAPIMARU_Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    boolean contains(Inventory inventory) {
+        return views.containsKey(inventory);
+    }
+
+    void open(Inventory inventory, LinkedGroup group) {
+        views.put(inventory, group);
+        viewersByGroup.computeIfAbsent(group, k -> new LinkedHashSet<>()).add(inventory);
+    }
+
+    // 未反映の変更があれば先に他の画面へ配ってから外す
+    LinkedGroup close(Inventory inventory) {
+        LinkedGroup group = views.get(inventory);
+        if (group == null) return null;
+        Set<Inventory> changed = changedViews.get(group);
+        if (changed != null && changed.remove(inventory)) {
+            if (changed.isEmpty()) changedViews.remove(group);
+            sync(group, List.of(inventory));
+        }
+        views.remove(inventory);
+        Set<Inventory> viewers = viewersByGroup.get(group);
+        if (viewers != null) {
+            viewers.remove(inventory);
+            if (viewers.isEmpty()) viewersByGroup.remove(group);
+        }
+        return group;
+    }
+
+    // 前回の呼び出し以降に画面から本体へ変更を反映したか
+    boolean consumeModified(LinkedGroup group) {
+        return modifiedGroups.remove(group);
+    }
+
+    void markChanged(Inventory inventory) {
+        LinkedGroup group = views.get(inventory);
+        if (group == null) return;
+        changedViews.computeIfAbsent(group, k -> new LinkedHashSet<>()).add(inventory);
+        if (syncTask == null) {
+            // 次のtickで反映することで、クライアント側の描画と同期させる
+            syncTask = Bukkit.getScheduler().runTask(plugin, this::syncChanged);
+        }
+    }
+
+    private void syncChanged() {
+        syncTask = null;
+        if (changedViews.isEmpty()) return;
+        List<Map.Entry<LinkedGroup, Set<Inventory>>> entries = new ArrayList<>(changedViews.entrySet());
+        changedViews.clear();
+        for (Map.Entry<LinkedGroup, Set<Inventory>> entry : entries) {
+            sync(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void sync(LinkedGroup group, Collection<Inventory> sources) {
+        Inventory backing = group.getVirtualInventory();
+        // 比較は反映前の内容と行う。反映後の本体と比べると、別の画面に残っている古い内容を変更とみなして書き戻してしまう
+        ItemStack[] before = backing.getContents();
+        BitSet changedSlots = new BitSet(backing.getSize());
+        for (Inventory source : sources) {
+            int size = Math.min(source.getSize(), before.length);
+            for (int slot = 0; slot < size; slot++) {
+                ItemStack item = source.getItem(slot);
+                if (!Objects.equals(item, before[slot])) {
+                    backing.setItem(slot, item);
+                    changedSlots.set(slot);
+                }
+            }
+        }
+        if (changedSlots.isEmpty()) return;
+        modifiedGroups.add(group);
+
+        Set<Inventory> viewers = viewersByGroup.get(group);
+        if (viewers == null) return;
+        for (Inventory viewer : viewers) {
+            for (int slot = changedSlots.nextSetBit(0); slot >= 0 && slot < viewer.getSize(); slot = changedSlots.nextSetBit(slot + 1)) {
+                ItemStack item = backing.getItem(slot);
+                if (!Objects.equals(item, viewer.getItem(slot))) {
+                    viewer.setItem(slot, item);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.data.LinkedGroup;
+import com.yapimaru.plugin.util.BlockKey;
+import com.yapimaru.plugin.util.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// リンク済みチェストの索引。ワールドごとに、座標を1つの long に詰めたキーで引く。
+// 検索時に Location を作らないので、ホッパーの搬送イベントのような高頻度の判定に使える。
+// パーティクル表示用に、チャンク単位の一覧も合わせて持つ
+final class LinkedChestIndex {
+
+    private final Map<UUID, LongObjectMap<Entry>> worlds = new HashMap<>();
+    private final Map<UUID, LongObjectMap<List<Location>>> chunks = new HashMap<>();
+    private int size = 0;
+
+    LinkedGroup get(World world, int x, int y, int z) {
+        if (world == null) return null;
+        LongObjectMap<Entry> chests = worlds.get(world.getUID());
+        if (chests == null) return null;
+        Entry entry = chests.get(BlockKey.pack(x, y, z));
+        return entry != null ? entry.group : null;
+    }
+
+    LinkedGroup get(Location loc) {
+        if (loc == null) return null;
+        return get(loc.getWorld(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    boolean contains(Location loc) {
+        return get(loc) != null;
+    }
+
+    void put(Location loc, LinkedGroup group) {
+        if (loc == null || loc.getWorld() == null) return;
+        LongObjectMap<Entry> chests = worlds.computeIfAbsent(loc.getWorld().getUID(), k -> new LongObjectMap<>());
+        Location blockLoc = new Location(loc.getWorld(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        if (chests.put(BlockKey.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()), new Entry(blockLoc, group)) == null) {
+            size++;
+            chunks.computeIfAbsent(loc.getWorld().getUID(), k -> new LongObjectMap<>())
+                    .computeIfAbsent(chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4), k -> new ArrayList<>(2))
+                    .add(blockLoc);
+        }
+    }
+
+    void remove(Location loc) {
+        if (loc == null || loc.getWorld() == null) return;
+        LongObjectMap<Entry> chests = worlds.get(loc.getWorld().getUID());
+        if (chests == null) return;
+        Entry removed = chests.remove(BlockKey.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()));
+        if (removed != null) {
+            size--;
+            if (chests.isEmpty()) worlds.remove(loc.getWorld().getUID());
+            removeFromChunk(loc.getWorld().getUID(), removed.location);
+        }
+    }
+
+    private void removeFromChunk(UUID worldId, Location blockLoc) {
+        LongObjectMap<List<Location>> worldChunks = chunks.get(worldId);
+        if (worldChunks == null) return;
+        long key = chunkKey(blockLoc.getBlockX() >> 4, blockLoc.getBlockZ() >> 4);
+        List<Location> inChunk = worldChunks.get(key);
+        if (inChunk == null) return;
+        inChunk.remove(blockLoc);
+        if (inChunk.isEmpty()) {
+            worldChunks.remove(key);
+            if (worldChunks.isEmpty()) chunks.remove(worldId);
+        }
+    }
+
+    void clear() {
+        worlds.clear();
+        chunks.clear();
+        size = 0;
+    }
+
+    // 指定チャンク内のリンク済みチェスト (ブロック座標の Location) を列挙する
+    void forEachInChunk(World world, int chunkX, int chunkZ, Consumer<Location> action) {
+        LongObjectMap<List<Location>> worldChunks = chunks.get(world.getUID());
+        if (worldChunks == null) return;
+        List<Location> inChunk = worldChunks.get(chunkKey(chunkX, chunkZ));
+        if (inChunk == null) return;
+        for (int i = 0; i < inChunk.size(); i++) {
+            action.accept(inChunk.get(i));
+        }
+    }
+
+    boolean hasChestsIn(World world) {
+        return chunks.containsKey(world.getUID());
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(BiConsumer<Location, LinkedGroup> action) {
+        for (LongObjectMap<Entry> chests : worlds.values()) {
+            chests.forEachValue(entry -> action.accept(entry.location, entry.group));
+        }
+    }
+
+    private static final class Entry {
+        private final Location location;
+        private final LinkedGroup group;
+
+        private Entry(Location location, LinkedGroup group) {
+            this.location = location;
+            this.group = group;
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.yapimaru.plugin.managers;
 
 import com.yapimaru.plugin.YAPIMARU_Plugin;
 import com.yapimaru.plugin.data.ParticipantData;
+import com.yapimaru.plugin.data.StatType;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.ScoreboardManager;
 import org.bukkit.scoreboard.Team;
@@ -17,12 +19,38 @@ public class NameManager {
     private final ParticipantManager participantManager;
 
     private VoteManager voteManager;
-    private String globallyViewedStat = null;
+    private StatType globallyViewedStat = null;
 
-    public static final Set<String> WOOL_COLOR_NAMES = Set.of(
+    // 最後に適用した表示内容。変化のあった項目だけを送信する
+    private final Map<UUID, RenderState> renderStates = new HashMap<>();
+    // 同一tick内の更新要求はまとめて次のtickで処理する
+    private final Set<UUID> pendingUpdates = new LinkedHashSet<>();
+    private BukkitTask flushTask;
+
+    // UUID -> チーム の解決結果。退出時・リロード時に破棄する
+    private final Map<UUID, Team> teamCache = new HashMap<>();
+    private final Map<UUID, String> teamNames = new HashMap<>();
+    private static volatile long benchmarkSink;
+
+    // オンラインプレイヤーの色タグの索引 (UUID -> 色, 色 -> メンバー)
+    private final Map<UUID, String> colorTags = new HashMap<>();
+    private final Map<String, Set<UUID>> colorMembers = new HashMap<>();
+    private final TeamPlayerIndex teamPlayers = new TeamPlayerIndex(); // 色なしも含めた名前順の一覧 (テレポートメニュー用)
+
+    // 参加者でないプレイヤーの名前 (最近使ったものから一定数)。投票結果の表示などで毎回オフラインプレイヤーを引かないようにする
+    private static final int OFFLINE_NAME_CACHE_SIZE = 1024;
+    private final Map<UUID, String> offlineNames = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+            return size() > OFFLINE_NAME_CACHE_SIZE;
+        }
+    });
+
+    // 順序付き (PvPのチーム色と同じ順)
+    public static final Set<String> WOOL_COLOR_NAMES = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
             "white", "orange", "magenta", "light_blue", "yellow", "lime", "pink", "gray", "light_gray",
             "cyan", "purple", "blue", "brown", "green", "red", "black"
-    );
+    )));
 
     public NameManager(YAPIMARU_Plugin plugin, ParticipantManager participantManager) {
         this.plugin = plugin;
@@ -39,8 +67,14 @@ public class NameManager {
         }
     }
 
-    public void setGloballyViewedStat(String statName) {
-        this.globallyViewedStat = statName;
+    // 次回の更新で全項目を送り直す (外部で表示が変更された場合など)
+    public void clearRenderCache() {
+        renderStates.clear();
+        teamCache.clear();
+    }
+
+    public void setGloballyViewedStat(StatType statType) {
+        this.globallyViewedStat = statType;
         reloadData();
     }
 
@@ -49,12 +83,35 @@ public class NameManager {
         if (data != null) {
             return data.getDisplayName();
         }
+        Player online = Bukkit.getPlayer(uuid);
+        if (online != null) return online.getName();
+        String cached = offlineNames.get(uuid);
+        if (cached != null) return cached;
+
         OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-        return player.getName() != null ? player.getName() : uuid.toString();
+        if (player.getName() == null) return uuid.toString(); // 名前が分かるまではキャッシュしない
+        offlineNames.put(uuid, player.getName());
+        return player.getName();
+    }
+
+    // 参加時に呼ぶ。改名などで古くなっている可能性があるので、キャッシュした名前を捨てる
+    public void handlePlayerJoin(Player player) {
+        offlineNames.remove(player.getUniqueId());
+    }
+
+    public void handlePlayerQuit(Player player) {
+        setColorTagIndex(player.getUniqueId(), null);
+        teamPlayers.remove(player);
+        renderStates.remove(player.getUniqueId());
+        teamCache.remove(player.getUniqueId());
+        teamNames.remove(player.getUniqueId());
+        pendingUpdates.remove(player.getUniqueId());
     }
 
     public void resetPlayerName(Player targetPlayer) {
         if (targetPlayer == null) return;
+        renderStates.remove(targetPlayer.getUniqueId());
+        pendingUpdates.remove(targetPlayer.getUniqueId());
         Team team = getPlayerTeam(targetPlayer.getUniqueId());
         if (team == null) return;
 
@@ -67,7 +124,25 @@ public class NameManager {
 
     public void updatePlayerName(Player targetPlayer) {
         if (targetPlayer == null) return;
+        pendingUpdates.add(targetPlayer.getUniqueId());
+        if (flushTask == null) {
+            flushTask = Bukkit.getScheduler().runTask(plugin, this::flushPendingUpdates);
+        }
+    }
+
+    private void flushPendingUpdates() {
+        flushTask = null;
+        List<UUID> targets = new ArrayList<>(pendingUpdates);
+        pendingUpdates.clear();
+        for (UUID uuid : targets) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                applyPlayerName(player);
+            }
+        }
+    }
 
+    private void applyPlayerName(Player targetPlayer) {
         ParticipantData data = participantManager.findOrCreateParticipant(targetPlayer);
         if (data == null) return;
 
@@ -86,10 +161,7 @@ public class NameManager {
         }
         // 2. Stats Prefix (overrides vote prefix)
         if (this.globallyViewedStat != null) {
-            Number statValue = data.getStatistics().get(globallyViewedStat);
-            if (statValue != null) {
-                prefix = "§e[" + statValue + "] ";
-            }
+            prefix = "§e[" + data.getStat(globallyViewedStat) + "] ";
         }
 
         ChatColor teamColor = team.getColor();
@@ -100,19 +172,25 @@ public class NameManager {
         String displayName = data.getDisplayName();
         String linkedName = data.getLinkedName();
 
-        String listName;
+        String listName = teamColor + displayName + ChatColor.RESET;
+        String teamPrefix;
+        String teamSuffix;
         if (linkedName != null && !linkedName.isEmpty()) {
-            listName = teamColor + displayName + ChatColor.RESET;
-            team.setPrefix(prefix + teamColor + linkedName + ChatColor.GRAY + "(");
-            team.setSuffix(ChatColor.GRAY + ")");
+            teamPrefix = prefix + teamColor + linkedName + ChatColor.GRAY + "(";
+            teamSuffix = ChatColor.GRAY + ")";
         } else {
-            listName = teamColor + displayName + ChatColor.RESET;
-            team.setPrefix(prefix + teamColor);
-            team.setSuffix("");
+            teamPrefix = prefix + teamColor;
+            teamSuffix = "";
         }
 
-        targetPlayer.setDisplayName(listName);
-        targetPlayer.setPlayerListName(prefix + listName);
+        RenderState next = new RenderState(team.getName(), teamPrefix, teamSuffix, listName, prefix + listName);
+        RenderState last = renderStates.put(targetPlayer.getUniqueId(), next);
+        boolean sameTeam = last != null && last.teamName.equals(next.teamName);
+
+        if (!sameTeam || !last.teamPrefix.equals(next.teamPrefix)) team.setPrefix(next.teamPrefix);
+        if (!sameTeam || !last.teamSuffix.equals(next.teamSuffix)) team.setSuffix(next.teamSuffix);
+        if (last == null || !last.displayName.equals(next.displayName)) targetPlayer.setDisplayName(next.displayName);
+        if (last == null || !last.playerListName.equals(next.playerListName)) targetPlayer.setPlayerListName(next.playerListName);
     }
 
     @SuppressWarnings("deprecation")
@@ -121,6 +199,11 @@ public class NameManager {
         if (!player.hasPlayedBefore() && !player.isOnline()) return false;
 
         Team team = getPlayerTeam(player.getUniqueId());
+        if (!player.isOnline()) {
+            // オフラインのプレイヤーは退出時の後片付けがないので、キャッシュに残さない
+            teamCache.remove(player.getUniqueId());
+            teamNames.remove(player.getUniqueId());
+        }
         if (team == null) return false;
 
         if (colorName.equalsIgnoreCase("reset")) {
@@ -137,11 +220,68 @@ public class NameManager {
             if (!colorName.equalsIgnoreCase("reset")) {
                 onlinePlayer.addScoreboardTag(colorName.toLowerCase());
             }
+            refreshColorTag(onlinePlayer);
             updatePlayerName(onlinePlayer);
         }
         return true;
     }
 
+    // --- Color Tag Index ---
+    public String getColorTag(UUID uuid) {
+        return colorTags.get(uuid);
+    }
+
+    public Set<UUID> getColorMembers(String colorName) {
+        Set<UUID> members = colorMembers.get(colorName);
+        return members != null ? Collections.unmodifiableSet(members) : Collections.emptySet();
+    }
+
+    public Set<UUID> getColoredPlayers() {
+        return Collections.unmodifiableSet(colorTags.keySet());
+    }
+
+    // スコアボードタグを読み直して索引を更新する (参加時・ゲーム開始時など)
+    public void refreshColorTag(Player player) {
+        String found = null;
+        Set<String> tags = player.getScoreboardTags();
+        for (String colorName : WOOL_COLOR_NAMES) {
+            if (tags.contains(colorName)) {
+                found = colorName;
+                break;
+            }
+        }
+        setColorTagIndex(player.getUniqueId(), found);
+        teamPlayers.update(player, found);
+    }
+
+    TeamPlayerIndex getTeamPlayers() {
+        return teamPlayers;
+    }
+
+    public void rebuildColorTagIndex() {
+        colorTags.clear();
+        colorMembers.clear();
+        teamPlayers.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refreshColorTag(player);
+        }
+    }
+
+    private void setColorTagIndex(UUID uuid, String colorName) {
+        String previous = colorName != null ? colorTags.put(uuid, colorName) : colorTags.remove(uuid);
+        if (Objects.equals(previous, colorName)) return;
+        if (previous != null) {
+            Set<UUID> members = colorMembers.get(previous);
+            if (members != null) {
+                members.remove(uuid);
+                if (members.isEmpty()) colorMembers.remove(previous);
+            }
+        }
+        if (colorName != null) {
+            colorMembers.computeIfAbsent(colorName, k -> new LinkedHashSet<>()).add(uuid);
+        }
+    }
+
     private ChatColor mapWoolColorToChatColor(String woolColorName) {
         return switch (woolColorName.toLowerCase()) {
             case "orange" -> ChatColor.GOLD;
@@ -164,10 +304,63 @@ public class NameManager {
     }
 
     public Team getPlayerTeam(UUID uuid) {
+        Team cached = teamCache.get(uuid);
+        if (cached != null) {
+            try {
+                cached.getName(); // 登録が解除されたチームは IllegalStateException になる
+                return cached;
+            } catch (IllegalStateException e) {
+                // 外部の /team remove やスコアボードのリセットで消えたチームは作り直し、表示も全項目送り直す
+                teamCache.remove(uuid);
+                renderStates.remove(uuid);
+            }
+        }
+
         ScoreboardManager manager = Bukkit.getScoreboardManager();
         if (manager == null) return null;
         Scoreboard scoreboard = manager.getMainScoreboard();
 
+        String teamName = teamNames.computeIfAbsent(uuid, NameManager::createTeamName);
+        Team team = scoreboard.getTeam(teamName);
+        if (team == null) {
+            team = scoreboard.registerNewTeam(teamName);
+        }
+        teamCache.put(uuid, team);
+        return team;
+    }
+
+    // /ym teambench 用。キャッシュなし (チーム名の生成 + スコアボードからの検索) とキャッシュありの1回あたりの時間を比べる
+    public String benchmarkTeamLookup(UUID uuid, int iterations) {
+        ScoreboardManager manager = Bukkit.getScoreboardManager();
+        if (manager == null || getPlayerTeam(uuid) == null) return "スコアボードが利用できません。";
+        Scoreboard scoreboard = manager.getMainScoreboard();
+
+        // 最初に両方を一通り回して JIT を温める
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += scoreboard.getTeam(createTeamName(uuid)).hashCode() + getPlayerTeam(uuid).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Team team = Bukkit.getScoreboardManager().getMainScoreboard().getTeam(createTeamName(uuid));
+            sink += team.hashCode();
+        }
+        long uncachedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += getPlayerTeam(uuid).hashCode();
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        benchmarkSink = sink; // 計測対象の呼び出しが最適化で消されないように
+        return String.format("%d回: キャッシュなし %.1f ns/回, キャッシュあり %.1f ns/回 (%.1f倍)",
+                iterations, (double) uncachedNanos / iterations, (double) cachedNanos / iterations,
+                cachedNanos == 0 ? 0.0 : (double) uncachedNanos / cachedNanos);
+    }
+
+    private static String createTeamName(UUID uuid) {
         String uuidString = uuid.toString();
         String uniquePart = uuidString.substring(uuidString.length() - 12);
         String teamName = "name_" + uniquePart;
@@ -175,11 +368,22 @@ public class NameManager {
         if (teamName.length() > 16) {
             teamName = teamName.substring(0, 16);
         }
+        return teamName;
+    }
 
-        Team team = scoreboard.getTeam(teamName);
-        if (team == null) {
-            team = scoreboard.registerNewTeam(teamName);
+    private static final class RenderState {
+        private final String teamName;
+        private final String teamPrefix;
+        private final String teamSuffix;
+        private final String displayName;
+        private final String playerListName;
+
+        private RenderState(String teamName, String teamPrefix, String teamSuffix, String displayName, String playerListName) {
+            this.teamName = teamName;
+            this.teamPrefix = teamPrefix;
+            this.teamSuffix = teamSuffix;
+            this.displayName = displayName;
+            this.playerListName = playerListName;
         }
-        return team;
     }
-}
\ No newline at end of file
+}
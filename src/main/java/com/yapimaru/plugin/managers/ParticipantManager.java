@@ -2,17 +2,27 @@ package com.yapimaru.plugin.managers;
 
 import com.yapimaru.plugin.YAPIMARU_Plugin;
 import com.yapimaru.plugin.data.ParticipantData;
+import com.yapimaru.plugin.data.ParticipantListView;
+import com.yapimaru.plugin.data.StatLeaderboard;
+import com.yapimaru.plugin.data.StatType;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -26,61 +36,110 @@ public class ParticipantManager {
     private final Map<String, ParticipantData> activeParticipants = new HashMap<>(); // Key: participantId
     private final Map<UUID, ParticipantData> uuidToParticipantMap = new HashMap<>();
     private final Map<String, ParticipantData> dischargedParticipants = new HashMap<>();
+    private final ParticipantListView activeView = new ParticipantListView(); // GUIの一覧用 (並べ替え済み)
+    private final ParticipantListView dischargedView = new ParticipantListView();
+    private final Map<StatType, StatLeaderboard> leaderboards = new EnumMap<>(StatType.class); // 現役参加者のみ
+    private final AccountLinkIndex accountLinks;
 
     // For join/playtime tracking
     private final Map<UUID, Long> loginTimestamps = new HashMap<>();
     private final Map<UUID, Long> lastQuitTimestamps = new HashMap<>();
 
+    // Write-behind: 統計の更新はメモリ上で行い、変更のあった参加者だけを定期的に書き出す
+    private final Object fileLock = new Object();
+    private final Set<ParticipantData> dirtyParticipants = ConcurrentHashMap.newKeySet();
+    private final Queue<ParticipantSnapshot> pendingWrites = new ConcurrentLinkedQueue<>();
+    // スナップショットは作った順に番号を振り、参加者ごとに書き出し済みの番号より古いものは捨てる (fileLock で保護)
+    private final AtomicLong snapshotSequence = new AtomicLong();
+    private final Map<ParticipantData, Long> writtenSequences = new WeakHashMap<>();
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private int maxPendingUpdates = 200;
+    private BukkitTask flushTask;
+
     public ParticipantManager(YAPIMARU_Plugin plugin) {
         this.plugin = plugin;
         this.participantDir = new File(plugin.getDataFolder(), "Participant_Information");
         this.activeDir = new File(participantDir, "participant");
         this.dischargedDir = new File(participantDir, "discharge");
+        for (StatType type : StatType.values()) {
+            leaderboards.put(type, new StatLeaderboard());
+        }
 
         if (!activeDir.exists()) activeDir.mkdirs();
         if (!dischargedDir.exists()) dischargedDir.mkdirs();
 
         migrateOldFiles();
-        loadAllParticipants();
+        this.accountLinks = new AccountLinkIndex(plugin, activeDir);
+        accountLinks.startWatching();
+        startFlushTask(); // 読み込みは StartupLoader から行う
+    }
+
+    // 参加者ファイルを並列に読み込み、メインスレッドで反映する処理を返す
+    public Runnable loadAllParticipants() {
+        List<LoadedParticipant> active = StartupLoader.parseAll(plugin, listYamlFiles(activeDir), this::loadParticipantFromFile);
+        List<LoadedParticipant> discharged = StartupLoader.parseAll(plugin, listYamlFiles(dischargedDir), this::loadParticipantFromFile);
+        return () -> publishParticipants(active, discharged);
+    }
+
+    private static List<File> listYamlFiles(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".yml"));
+        return files == null ? new ArrayList<>() : Arrays.asList(files);
+    }
+
+    private LoadedParticipant loadParticipantFromFile(File file) {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        String fileId = file.getName().substring(0, file.getName().length() - ".yml".length());
+        return new LoadedParticipant(new ParticipantData(config), fileId, AccountLinkIndex.readAccounts(config));
     }
 
-    private void loadAllParticipants() {
+    private void publishParticipants(List<LoadedParticipant> active, List<LoadedParticipant> discharged) {
         activeParticipants.clear();
         uuidToParticipantMap.clear();
         dischargedParticipants.clear();
 
-        // Active participants
-        File[] activeFiles = activeDir.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (activeFiles != null) {
-            for (File file : activeFiles) {
-                loadParticipantFromFile(file, activeParticipants);
+        Map<String, Set<UUID>> accounts = new HashMap<>();
+        for (LoadedParticipant loaded : active) {
+            ParticipantData data = loaded.data;
+            activeParticipants.put(data.getParticipantId(), data);
+            for (UUID uuid : data.getAssociatedUuids()) { // Only map UUIDs for active participants
+                uuidToParticipantMap.put(uuid, data);
             }
+            accounts.put(loaded.fileId, loaded.accounts);
         }
-
-        // Discharged participants
-        File[] dischargedFiles = dischargedDir.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (dischargedFiles != null) {
-            for (File file : dischargedFiles) {
-                loadParticipantFromFile(file, dischargedParticipants);
-            }
+        for (LoadedParticipant loaded : discharged) {
+            dischargedParticipants.put(loaded.data.getParticipantId(), loaded.data);
         }
+        accountLinks.replaceAll(accounts);
+        activeView.rebuild(activeParticipants.values());
+        dischargedView.rebuild(dischargedParticipants.values());
+        rebuildLeaderboards();
+        // WhitelistManager は読み込み前に作られるので、反映後に許可リストを作り直す
+        plugin.getWhitelistManager().syncAllowedPlayers();
         plugin.getLogger().info("Loaded " + activeParticipants.size() + " active and " + dischargedParticipants.size() + " discharged participant data files.");
     }
 
-    private void loadParticipantFromFile(File file, Map<String, ParticipantData> map) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
-        ParticipantData data = new ParticipantData(config);
-        map.put(data.getParticipantId(), data);
-        if (map == activeParticipants) { // Only map UUIDs for active participants
-            for (UUID uuid : data.getAssociatedUuids()) {
-                uuidToParticipantMap.put(uuid, data);
-            }
-        }
-    }
-
     public void reloadAllParticipants() {
         plugin.getLogger().info("Reloading all participant data...");
-        loadAllParticipants();
+        // 未保存の統計を書き出してから読み直す
+        flushAllNow();
+        loadAllParticipants().run();
+        startFlushTask();
+    }
+
+    private void startFlushTask() {
+        long intervalSeconds = Math.max(1L, plugin.getConfig().getLong("participant-stats.flush-interval-seconds", 30L));
+        this.maxPendingUpdates = Math.max(1, plugin.getConfig().getInt("participant-stats.max-pending-updates", 200));
+
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                flushDirtyParticipants();
+            }
+        }.runTaskTimer(plugin, intervalSeconds * 20L, intervalSeconds * 20L);
     }
 
     public ParticipantData getParticipant(UUID uuid) {
@@ -100,8 +159,54 @@ public class ParticipantManager {
         return Collections.unmodifiableCollection(dischargedParticipants.values());
     }
 
+    public ParticipantListView getActiveView() {
+        return activeView;
+    }
+
+    public ParticipantListView getDischargedView() {
+        return dischargedView;
+    }
+
+    // --- Leaderboards ---
+    public StatLeaderboard getLeaderboard(StatType type) {
+        return leaderboards.get(type);
+    }
+
+    // 現役参加者でない場合は -1
+    public int getRank(ParticipantData data, StatType type, boolean worst) {
+        if (data == null || activeParticipants.get(data.getParticipantId()) != data) return -1;
+        return leaderboards.get(type).getRank(data.getStat(type), !worst);
+    }
+
+    private void rebuildLeaderboards() {
+        leaderboards.values().forEach(StatLeaderboard::clear);
+        activeParticipants.values().forEach(this::addToLeaderboards);
+    }
+
+    private void addToLeaderboards(ParticipantData data) {
+        for (StatType type : StatType.values()) {
+            leaderboards.get(type).insert(data, data.getStat(type));
+        }
+    }
+
+    private void removeFromLeaderboards(ParticipantData data) {
+        for (StatType type : StatType.values()) {
+            leaderboards.get(type).remove(data, data.getStat(type));
+        }
+    }
+
+    private void addStat(ParticipantData data, StatType type, long amount) {
+        if (amount == 0) return;
+        long oldValue = data.getStat(type);
+        data.addStat(type, amount);
+        leaderboards.get(type).update(data, oldValue, data.getStat(type));
+    }
+
     public ParticipantData findOrCreateParticipant(OfflinePlayer player) {
         if (player == null) return null;
+        // 起動時の読み込み中は一覧が空なので、既存の参加者を新規として作って上書きしないよう何もしない
+        StartupLoader startupLoader = plugin.getStartupLoader();
+        if (startupLoader == null || !startupLoader.isReady()) return null;
         if (uuidToParticipantMap.containsKey(player.getUniqueId())) {
             return uuidToParticipantMap.get(player.getUniqueId());
         }
@@ -120,38 +225,134 @@ public class ParticipantManager {
     public void saveParticipant(ParticipantData data) {
         if (data == null) return;
 
+        dirtyParticipants.remove(data);
+        data.clearDirty();
+        ParticipantSnapshot snapshot = createSnapshot(data);
+        synchronized (fileLock) {
+            writeSnapshot(snapshot);
+        }
+    }
+
+    private boolean isOutdated(ParticipantSnapshot snapshot) {
+        Long written = writtenSequences.get(snapshot.data);
+        return written != null && written > snapshot.sequence;
+    }
+
+    private void markDirty(ParticipantData data) {
+        data.markDirty();
+        dirtyParticipants.add(data);
+        // 未保存の更新が上限に達したら、定期書き出しを待たずに書き出す
+        if (pendingUpdates.incrementAndGet() >= maxPendingUpdates && plugin.isEnabled() && flushRequested.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(plugin, this::flushDirtyParticipants);
+        }
+    }
+
+    public void flushDirtyParticipants() {
+        flushRequested.set(false);
+        if (!drainDirtyParticipants()) return;
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                writePendingSnapshots();
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    // 未保存の変更をすべて同期的に書き出す (onDisable・リロード時)
+    public void shutdown() {
+        accountLinks.close();
+        flushAllNow();
+    }
+
+    public void flushAllNow() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        drainDirtyParticipants();
+        writePendingSnapshots();
+    }
+
+    private boolean drainDirtyParticipants() {
+        pendingUpdates.set(0);
+        boolean drained = false;
+        Iterator<ParticipantData> iterator = dirtyParticipants.iterator();
+        while (iterator.hasNext()) {
+            ParticipantData data = iterator.next();
+            iterator.remove();
+            data.clearDirty();
+            // リロード等でメモリから外れた古いデータは書き出さない
+            if (activeParticipants.get(data.getParticipantId()) != data && dischargedParticipants.get(data.getParticipantId()) != data) {
+                continue;
+            }
+            pendingWrites.add(createSnapshot(data));
+            drained = true;
+        }
+        return drained;
+    }
+
+    // ロックは1ファイルごとに取り直す。まとめて持つと、メインスレッドの保存やファイルの移動がすべての書き出しを待つことになる
+    private void writePendingSnapshots() {
+        ParticipantSnapshot snapshot;
+        while ((snapshot = pendingWrites.poll()) != null) {
+            synchronized (fileLock) {
+                if (isOutdated(snapshot)) continue; // 待っている間に新しい内容が保存された
+                if (!snapshot.file.exists()) {
+                    // 書き出し待ちの間にファイルが移動・リネームされた。次回の書き出しで新しい場所に保存する
+                    markDirty(snapshot.data);
+                    continue;
+                }
+                writeSnapshot(snapshot);
+            }
+        }
+    }
+
+    private ParticipantSnapshot createSnapshot(ParticipantData data) {
         boolean isDischarged = dischargedParticipants.containsKey(data.getParticipantId());
         File targetDir = isDischarged ? dischargedDir : activeDir;
 
-        File file = new File(targetDir, data.getParticipantId() + ".yml");
+        return new ParticipantSnapshot(
+                data,
+                snapshotSequence.incrementAndGet(),
+                new File(targetDir, data.getParticipantId() + ".yml"),
+                data.getBaseName(),
+                data.getLinkedName(),
+                data.getAssociatedUuids().stream().map(UUID::toString).collect(Collectors.toList()),
+                data.getStatistics()
+        );
+    }
+
+    private void writeSnapshot(ParticipantSnapshot snapshot) {
+        if (isOutdated(snapshot)) return;
+        writtenSequences.put(snapshot.data, snapshot.sequence);
+        File file = snapshot.file;
         // 既存のファイルをロードして、未知のセクションを保持する
         YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
 
-        config.set("base_name", data.getBaseName());
+        config.set("base_name", snapshot.baseName);
         config.setComments("base_name", List.of("プレイヤー名"));
 
-        config.set("linked_name", data.getLinkedName());
+        config.set("linked_name", snapshot.linkedName);
         config.setComments("linked_name", List.of("キャラクター名"));
 
-        config.set("associated-uuids", data.getAssociatedUuids().stream().map(UUID::toString).collect(Collectors.toList()));
+        config.set("associated-uuids", snapshot.associatedUuids);
         config.setComments("associated-uuids", List.of("UUID"));
 
         String statsPath = "statistics";
         // statisticsセクションを一度nullでクリアすることで、古いキーが残るのを防ぐ
         config.set(statsPath, null);
-        config.createSection(statsPath, data.getStatistics());
+        config.createSection(statsPath, snapshot.statistics);
         config.setComments(statsPath, List.of("統計情報"));
-        config.setComments(statsPath + ".total_deaths", List.of("デス合計"));
-        config.setComments(statsPath + ".total_joins", List.of("サーバー入室合計回数"));
-        config.setComments(statsPath + ".total_playtime_seconds", List.of("サーバー参加合計時間"));
-        config.setComments(statsPath + ".photoshoot_participations", List.of("撮影参加合計回数"));
-        config.setComments(statsPath + ".total_chats", List.of("チャット合計回数"));
-        config.setComments(statsPath + ".w_count", List.of("w合計数"));
+        for (StatType type : StatType.values()) {
+            config.setComments(statsPath + "." + type.getKey(), List.of(type.getComment()));
+        }
 
         try {
-            config.save(file);
+            // 一時ファイルに書いてから置き換える (書き込み途中のファイルをフォルダの監視が読まないように)
+            LinkStorage.writeAtomically(file, config.saveToString().getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save participant data for " + data.getParticipantId(), e);
+            plugin.getLogger().log(Level.SEVERE, "Could not save participant data for " + file.getName(), e);
         }
     }
 
@@ -159,7 +360,15 @@ public class ParticipantManager {
         if (data == null || data.getParticipantId() == null || data.getParticipantId().isEmpty()) {
             return;
         }
-        activeParticipants.put(data.getParticipantId(), data);
+        ParticipantData previous = activeParticipants.put(data.getParticipantId(), data);
+        if (previous != data) {
+            if (previous != null) {
+                removeFromLeaderboards(previous);
+                activeView.remove(previous);
+            }
+            addToLeaderboards(data);
+            activeView.add(data);
+        }
         for (UUID uuid : data.getAssociatedUuids()) {
             uuidToParticipantMap.put(uuid, data);
         }
@@ -174,8 +383,13 @@ public class ParticipantManager {
         File newFile = new File(activeDir, participantId + ".yml");
 
         try {
-            Files.move(oldFile.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            synchronized (fileLock) {
+                Files.move(oldFile.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
             activeParticipants.put(participantId, data);
+            addToLeaderboards(data);
+            dischargedView.remove(data);
+            activeView.add(data);
             data.getAssociatedUuids().forEach(uuid -> uuidToParticipantMap.put(uuid, data));
             plugin.getWhitelistManager().syncAllowedPlayers();
             return true;
@@ -194,8 +408,13 @@ public class ParticipantManager {
         File newFile = new File(dischargedDir, participantId + ".yml");
 
         try {
-            Files.move(oldFile.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            synchronized (fileLock) {
+                Files.move(oldFile.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
             dischargedParticipants.put(participantId, data);
+            removeFromLeaderboards(data);
+            activeView.remove(data);
+            dischargedView.add(data);
             data.getAssociatedUuids().forEach(uuidToParticipantMap::remove);
             plugin.getWhitelistManager().syncAllowedPlayers();
             return true;
@@ -220,8 +439,8 @@ public class ParticipantManager {
     public void incrementDeaths(UUID uuid) {
         ParticipantData data = findOrCreateParticipant(Bukkit.getOfflinePlayer(uuid));
         if (data == null) return;
-        data.incrementStat("total_deaths");
-        saveParticipant(data);
+        addStat(data, StatType.TOTAL_DEATHS, 1);
+        markDirty(data);
     }
 
     public void incrementJoins(UUID uuid) {
@@ -235,39 +454,33 @@ public class ParticipantManager {
 
         ParticipantData data = findOrCreateParticipant(Bukkit.getOfflinePlayer(uuid));
         if (data == null) return;
-        data.incrementStat("total_joins");
-        saveParticipant(data);
+        addStat(data, StatType.TOTAL_JOINS, 1);
+        markDirty(data);
     }
 
     public void addPlaytime(UUID uuid, long secondsToAdd) {
         ParticipantData data = findOrCreateParticipant(Bukkit.getOfflinePlayer(uuid));
         if (data == null) return;
-        long currentPlaytime = data.getStatistics().getOrDefault("total_playtime_seconds", 0L).longValue();
-        data.getStatistics().put("total_playtime_seconds", currentPlaytime + secondsToAdd);
-        saveParticipant(data);
+        addStat(data, StatType.TOTAL_PLAYTIME_SECONDS, secondsToAdd);
+        markDirty(data);
     }
 
     public void incrementPhotoshootParticipations(UUID uuid) {
         ParticipantData data = findOrCreateParticipant(Bukkit.getOfflinePlayer(uuid));
         if (data == null) return;
-        data.incrementStat("photoshoot_participations");
-        saveParticipant(data);
+        addStat(data, StatType.PHOTOSHOOT_PARTICIPATIONS, 1);
+        markDirty(data);
     }
 
-    public void incrementChats(UUID uuid) {
-        ParticipantData data = findOrCreateParticipant(Bukkit.getOfflinePlayer(uuid));
+    // チャット統計は ChatStatsManager がメインスレッドでまとめて適用する
+    public void addChatStats(UUID uuid, int chats, long wCount) {
+        if (chats == 0 && wCount == 0) return;
+        Player onlinePlayer = Bukkit.getPlayer(uuid);
+        ParticipantData data = findOrCreateParticipant(onlinePlayer != null ? onlinePlayer : Bukkit.getOfflinePlayer(uuid));
         if (data == null) return;
-        data.incrementStat("total_chats");
-        saveParticipant(data);
-    }
-
-    public void incrementWCount(UUID uuid, int amount) {
-        if (amount == 0) return;
-        ParticipantData data = findOrCreateParticipant(Bukkit.getOfflinePlayer(uuid));
-        if (data == null) return;
-        long currentWCount = data.getStatistics().getOrDefault("w_count", 0L).longValue();
-        data.getStatistics().put("w_count", currentWCount + amount);
-        saveParticipant(data);
+        addStat(data, StatType.TOTAL_CHATS, chats);
+        addStat(data, StatType.W_COUNT, wCount);
+        markDirty(data);
     }
 
     // --- Join/Quit Time Tracking ---
@@ -298,6 +511,7 @@ public class ParticipantManager {
         if (oldParticipantId.equals(newParticipantId)) {
             // ID(ファイル名)は変わらないが、大文字小文字などの違いで名前が変わっている可能性があるので保存する
             data.setFullName(newBaseName, newLinkedName);
+            activeView.update(data);
             saveParticipant(data);
             return true;
         }
@@ -306,54 +520,49 @@ public class ParticipantManager {
         File oldFile = new File(activeDir, oldParticipantId + ".yml");
         File newFile = new File(activeDir, newParticipantId + ".yml");
 
-        if (oldFile.exists()) {
-            if (!oldFile.renameTo(newFile)) {
-                plugin.getLogger().severe("Failed to rename participant file from '" + oldFile.getName() + "' to '" + newFile.getName() + "'.");
-                return false;
+        synchronized (fileLock) {
+            if (oldFile.exists()) {
+                if (!oldFile.renameTo(newFile)) {
+                    plugin.getLogger().severe("Failed to rename participant file from '" + oldFile.getName() + "' to '" + newFile.getName() + "'.");
+                    return false;
+                }
             }
         }
 
-        // メモリ上のデータを更新
+        // メモリ上のデータを更新 (順位表は参加者IDもキーに含むため入れ直す)
         activeParticipants.remove(oldParticipantId);
+        removeFromLeaderboards(data);
         data.setFullName(newBaseName, newLinkedName);
-        activeParticipants.put(newParticipantId, data);
+        ParticipantData replaced = activeParticipants.put(newParticipantId, data);
+        if (replaced != null && replaced != data) {
+            removeFromLeaderboards(replaced);
+            activeView.remove(replaced);
+        }
+        activeView.update(data);
+        addToLeaderboards(data);
 
         // ファイルの中身を保存（ファイル名は新しいIDから取得される）
         saveParticipant(data);
         return true;
     }
 
+    // accounts に登録されたサブアカウントで参加した場合、本アカウントと同じ名前にそろえる
     public void handleAccountLinkOnJoin(Player player) {
         UUID playerUuid = player.getUniqueId();
+        String mainParticipantId = accountLinks.getMainParticipantId(playerUuid);
+        if (mainParticipantId == null) return;
+        ParticipantData mainAccountData = activeParticipants.get(mainParticipantId);
+        if (mainAccountData == null) return;
 
-        Collection<ParticipantData> currentActiveParticipants = new ArrayList<>(activeParticipants.values());
-
-        for (ParticipantData mainAccountData : currentActiveParticipants) {
-            File participantFile = new File(activeDir, mainAccountData.getParticipantId() + ".yml");
-            if (!participantFile.exists()) {
-                continue;
-            }
-
-            YamlConfiguration config = YamlConfiguration.loadConfiguration(participantFile);
-            if (!config.isConfigurationSection("accounts")) {
-                continue;
-            }
-
-            ConfigurationSection accountsSection = config.getConfigurationSection("accounts");
-            for (String accountUuidString : accountsSection.getKeys(false)) {
-                if (playerUuid.toString().equalsIgnoreCase(accountUuidString)) {
-                    String mainBaseName = mainAccountData.getBaseName();
-                    String mainLinkedName = mainAccountData.getLinkedName();
+        String mainBaseName = mainAccountData.getBaseName();
+        String mainLinkedName = mainAccountData.getLinkedName();
 
-                    ParticipantData altAccountData = findOrCreateParticipant(player);
+        ParticipantData altAccountData = findOrCreateParticipant(player);
+        if (altAccountData == null) return;
 
-                    if (!altAccountData.getBaseName().equals(mainBaseName) || !altAccountData.getLinkedName().equals(mainLinkedName)) {
-                        plugin.getLogger().info("Linking account " + player.getName() + " to " + mainAccountData.getDisplayName() + ". Updating names.");
-                        changePlayerName(playerUuid, mainBaseName, mainLinkedName);
-                    }
-                    return;
-                }
-            }
+        if (!altAccountData.getBaseName().equals(mainBaseName) || !altAccountData.getLinkedName().equals(mainLinkedName)) {
+            plugin.getLogger().info("Linking account " + player.getName() + " to " + mainAccountData.getDisplayName() + ". Updating names.");
+            changePlayerName(playerUuid, mainBaseName, mainLinkedName);
         }
     }
 
@@ -375,4 +584,36 @@ public class ParticipantManager {
             plugin.getLogger().info("Moved " + count + " files.");
         }
     }
-}
\ No newline at end of file
+
+    private static final class LoadedParticipant {
+        private final ParticipantData data;
+        private final String fileId;
+        private final Set<UUID> accounts;
+
+        private LoadedParticipant(ParticipantData data, String fileId, Set<UUID> accounts) {
+            this.data = data;
+            this.fileId = fileId;
+            this.accounts = accounts;
+        }
+    }
+
+    private static final class ParticipantSnapshot {
+        private final ParticipantData data;
+        private final long sequence;
+        private final File file;
+        private final String baseName;
+        private final String linkedName;
+        private final List<String> associatedUuids;
+        private final Map<String, Object> statistics;
+
+        private ParticipantSnapshot(ParticipantData data, long sequence, File file, String baseName, String linkedName, List<String> associatedUuids, Map<String, Object> statistics) {
+            this.data = data;
+            this.sequence = sequence;
+            this.file = file;
+            this.baseName = baseName;
+            this.linkedName = linkedName;
+            this.associatedUuids = associatedUuids;
+            this.statistics = statistics;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.yapimaru.plugin.managers;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.yapimaru.plugin.util.LongObjectMap;
+import org.bukkit.World;
+
+import java.util.*;
+
+// 保護範囲(スポーン保護・アリーナ・デス待機場所)をワールドごと・チャンクごとに振り分けた索引。
+// 点の判定はバケット内の数個の直方体との比較だけで済み、オブジェクトを生成しない
+class ProtectionIndex {
+
+    static final int SPAWN = 1;
+    static final int ARENA = 2;
+    static final int DED_ARENA = 4;
+
+    // これより多くのチャンクにまたがる範囲はバケットに入れず、ワールド全体のリストで判定する
+    private static final int MAX_BUCKETS_PER_VOLUME = 4096;
+
+    private static final Volume[] EMPTY = new Volume[0];
+
+    private final Map<UUID, WorldIndex> worlds = new HashMap<>();
+    private final WorldIndex anyWorld = new WorldIndex(); // ワールド不明の範囲はすべてのワールドで判定する
+
+    void clear() {
+        worlds.clear();
+        anyWorld.clear();
+    }
+
+    // 従来の BoundingBox(l-1 .. l+2, l-1 .. l+4) と同じ範囲をブロック単位で登録する
+    void addSpawnBox(World world, int x, int y, int z, String team) {
+        add(world, new Volume(SPAWN, team, x - 1, y - 1, z - 1, x + 1, y + 3, z + 1, null));
+    }
+
+    void addRegion(World world, Region region, int kind, String team) {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        // 直方体以外は外接直方体で絞り込んだ後に Region#contains で判定する
+        Region exact = region instanceof CuboidRegion ? null : region;
+        add(world, new Volume(kind, team, min.x(), min.y(), min.z(), max.x(), max.y(), max.z(), exact));
+    }
+
+    boolean contains(World world, double x, double y, double z, int kinds) {
+        return find(world, x, y, z, kinds, null, 0);
+    }
+
+    boolean containsTeam(World world, double x, double y, double z, int kinds, String team) {
+        return team != null && find(world, x, y, z, kinds, team, 1);
+    }
+
+    // team が null の場合はすべてのチームの範囲が対象
+    boolean containsOtherTeam(World world, double x, double y, double z, int kinds, String team) {
+        return find(world, x, y, z, kinds, team, team == null ? 0 : -1);
+    }
+
+    // teamMode: 0 = チームを問わない, 1 = 同じチームのみ, -1 = 他チームのみ
+    private boolean find(World world, double x, double y, double z, int kinds, String team, int teamMode) {
+        int bx = (int) Math.floor(x);
+        int by = (int) Math.floor(y);
+        int bz = (int) Math.floor(z);
+        if (world != null) {
+            WorldIndex index = worlds.get(world.getUID());
+            if (index != null && index.find(bx, by, bz, kinds, team, teamMode)) return true;
+        }
+        return anyWorld.find(bx, by, bz, kinds, team, teamMode);
+    }
+
+    private void add(World world, Volume volume) {
+        WorldIndex index = world == null ? anyWorld : worlds.computeIfAbsent(world.getUID(), k -> new WorldIndex());
+        index.add(volume);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static final class WorldIndex {
+        private final LongObjectMap<Volume[]> buckets = new LongObjectMap<>();
+        private Volume[] large = EMPTY;
+
+        private void clear() {
+            buckets.clear();
+            large = EMPTY;
+        }
+
+        private void add(Volume volume) {
+            int minChunkX = volume.minX >> 4, maxChunkX = volume.maxX >> 4;
+            int minChunkZ = volume.minZ >> 4, maxChunkZ = volume.maxZ >> 4;
+            long chunkCount = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+            if (chunkCount > MAX_BUCKETS_PER_VOLUME) {
+                large = append(large, volume);
+                return;
+            }
+            for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+                for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                    long key = chunkKey(cx, cz);
+                    Volume[] bucket = buckets.get(key);
+                    buckets.put(key, append(bucket == null ? EMPTY : bucket, volume));
+                }
+            }
+        }
+
+        private boolean find(int x, int y, int z, int kinds, String team, int teamMode) {
+            if (!buckets.isEmpty()) {
+                Volume[] bucket = buckets.get(chunkKey(x >> 4, z >> 4));
+                if (bucket != null && matchAny(bucket, x, y, z, kinds, team, teamMode)) return true;
+            }
+            return large.length > 0 && matchAny(large, x, y, z, kinds, team, teamMode);
+        }
+
+        private static boolean matchAny(Volume[] volumes, int x, int y, int z, int kinds, String team, int teamMode) {
+            for (Volume volume : volumes) {
+                if ((volume.kind & kinds) == 0) continue;
+                if (teamMode == 1 && !team.equals(volume.team)) continue;
+                if (teamMode == -1 && team.equals(volume.team)) continue;
+                if (volume.contains(x, y, z)) return true;
+            }
+            return false;
+        }
+
+        private static Volume[] append(Volume[] array, Volume volume) {
+            Volume[] result = Arrays.copyOf(array, array.length + 1);
+            result[array.length] = volume;
+            return result;
+        }
+    }
+
+    private static final class Volume {
+        private final int kind;
+        private final String team;
+        private final int minX, minY, minZ, maxX, maxY, maxZ; // 両端を含むブロック座標
+        private final Region exactRegion;
+
+        private Volume(int kind, String team, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Region exactRegion) {
+            this.kind = kind;
+            this.team = team;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.exactRegion = exactRegion;
+        }
+
+        private boolean contains(int x, int y, int z) {
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) return false;
+            return exactRegion == null || exactRegion.contains(BlockVector3.at(x, y, z));
+        }
+    }
+}
@@ -18,21 +18,17 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
-import org.bukkit.scoreboard.*;
-import org.bukkit.util.BoundingBox;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 public class PvpManager {
 
     private final YAPIMARU_Plugin plugin;
     private final BukkitAudiences adventure;
     private final NameManager nameManager;
+    private final PvpScoreboard pvpScoreboard;
+    private List<String> commonScoreboardLines; // null の場合は次回の描画で作り直す
 
     public enum GameState { IDLE, PRE_GAME, RUNNING }
     public enum LivesMode { TEAM, PLAYER }
@@ -43,7 +39,6 @@ public class PvpManager {
     private final Map<String, ArenaData> teamDataMap = new LinkedHashMap<>();
 
     private final Map<UUID, Long> invinciblePlayers = new ConcurrentHashMap<>();
-    private final Map<UUID, BukkitRunnable> playerStateTasks = new ConcurrentHashMap<>();
     private final Map<UUID, Integer> respawnTimers = new ConcurrentHashMap<>();
     private final Set<UUID> zeroLivesWaitRespawn = new HashSet<>();
     private final Set<UUID> zeroLivesSpectator = new HashSet<>();
@@ -65,10 +60,13 @@ public class PvpManager {
     private int gracePeriodTime = 3;
     private boolean isGracePeriodActive = false;
 
-    private BukkitTask gracePeriodTask;
-    private BukkitTask hostileAreaDamageTask;
+    private final PvpTicker ticker; // 復活・無敵・準備時間などのタイマーはすべてここで処理する
     private int gracePeriodCountdown;
 
+    private final ProtectionIndex protectionIndex = new ProtectionIndex();
+    private boolean protectionIndexDirty = true;
+    private final Location scratchLocation = new Location(null, 0, 0, 0); // メインスレッド専用
+
     private static final List<String> DEFAULT_TEAM_COLORS = List.of(
             "white", "orange", "magenta", "light_blue", "yellow", "lime", "pink", "gray",
             "light_gray", "cyan", "purple", "blue", "brown", "green", "red", "black"
@@ -78,6 +76,8 @@ public class PvpManager {
         this.plugin = plugin;
         this.adventure = plugin.getAdventure();
         this.nameManager = plugin.getNameManager();
+        this.pvpScoreboard = new PvpScoreboard(nameManager);
+        this.ticker = new PvpTicker(plugin, this::onTimer);
         for (String colorName : DEFAULT_TEAM_COLORS) {
             teamDataMap.put(colorName, new ArenaData());
         }
@@ -102,22 +102,46 @@ public class PvpManager {
     public boolean isGracePeriodEnabled() { return gracePeriodEnabled; }
     public int getRespawnInvincibleTime() { return respawnInvincibleTime; }
     public int getGracePeriodTime() { return gracePeriodTime; }
+    public int getPendingTimerCount() { return ticker.getPendingCount(); }
 
-    private BoundingBox getSpawnProtectionBox(Location spawn) {
-        if (spawn == null) return null;
-        Location l = spawn.getBlock().getLocation();
-        return new BoundingBox(l.getX() - 1, l.getY() - 1, l.getZ() - 1, l.getX() + 2, l.getY() + 4, l.getZ() + 2);
+    // 保護範囲の索引。設定変更で dirty になり、次回の判定時かゲーム開始時に作り直す
+    private ProtectionIndex getProtectionIndex() {
+        if (protectionIndexDirty) {
+            rebuildProtectionIndex();
+        }
+        return protectionIndex;
     }
 
-    public boolean isLocationInSpawnProtection(Location loc) {
-        if (gameState == GameState.IDLE) return false;
-        for (ArenaData data : teamDataMap.values()) {
-            BoundingBox box = getSpawnProtectionBox(data.getSpawnLocation());
-            if (box != null && box.contains(loc.toVector())) {
-                return true;
+    private void rebuildProtectionIndex() {
+        protectionIndex.clear();
+        for (Map.Entry<String, ArenaData> entry : teamDataMap.entrySet()) {
+            ArenaData data = entry.getValue();
+            Location spawn = data.getSpawnLocation();
+            if (spawn != null) {
+                protectionIndex.addSpawnBox(spawn.getWorld(), spawn.getBlockX(), spawn.getBlockY(), spawn.getBlockZ(), entry.getKey());
+            }
+            if (data.getArenaRegion() != null) {
+                protectionIndex.addRegion(getRegionWorld(data.getArenaRegion()), data.getArenaRegion(), ProtectionIndex.ARENA, entry.getKey());
             }
         }
-        return false;
+        if (dedArenaData.getArenaRegion() != null) {
+            protectionIndex.addRegion(getRegionWorld(dedArenaData.getArenaRegion()), dedArenaData.getArenaRegion(), ProtectionIndex.DED_ARENA, null);
+        }
+        protectionIndexDirty = false;
+    }
+
+    private World getRegionWorld(Region region) {
+        return region.getWorld() != null ? BukkitAdapter.adapt(region.getWorld()) : null;
+    }
+
+    public boolean isLocationInSpawnProtection(Location loc) {
+        if (gameState == GameState.IDLE) return false;
+        return getProtectionIndex().contains(loc.getWorld(), loc.getX(), loc.getY(), loc.getZ(), ProtectionIndex.SPAWN);
+    }
+
+    public boolean isBlockInSpawnProtection(Block block) {
+        if (gameState == GameState.IDLE) return false;
+        return getProtectionIndex().contains(block.getWorld(), block.getX(), block.getY(), block.getZ(), ProtectionIndex.SPAWN);
     }
 
     public boolean isPlayerInOwnSpawnProtection(Player player) {
@@ -125,29 +149,16 @@ public class PvpManager {
         String playerTeam = getPlayerTeamTag(player);
         if (playerTeam == null) return false;
 
-        ArenaData data = teamDataMap.get(playerTeam);
-        if (data == null) return false;
-
-        BoundingBox box = getSpawnProtectionBox(data.getSpawnLocation());
-        return box != null && box.contains(player.getLocation().toVector());
+        Location loc = player.getLocation(scratchLocation);
+        return getProtectionIndex().containsTeam(loc.getWorld(), loc.getX(), loc.getY(), loc.getZ(), ProtectionIndex.SPAWN, playerTeam);
     }
 
     public boolean isPlayerInEnemySpawnProtection(Player player) {
         if (gameState != GameState.RUNNING) return false;
         String playerTeam = getPlayerTeamTag(player);
 
-        for (Map.Entry<String, ArenaData> entry : teamDataMap.entrySet()) {
-            String teamColor = entry.getKey();
-            ArenaData data = entry.getValue();
-
-            if (teamColor.equals(playerTeam)) continue;
-
-            BoundingBox box = getSpawnProtectionBox(data.getSpawnLocation());
-            if (box != null && box.contains(player.getLocation().toVector())) {
-                return true;
-            }
-        }
-        return false;
+        Location loc = player.getLocation(scratchLocation);
+        return getProtectionIndex().containsOtherTeam(loc.getWorld(), loc.getX(), loc.getY(), loc.getZ(), ProtectionIndex.SPAWN, playerTeam);
     }
 
     public void setFeatureEnabled(boolean enabled, CommandSender sender) {
@@ -187,10 +198,7 @@ public class PvpManager {
         if (enabled) {
             updateAllScoreboards();
         } else {
-            ScoreboardManager manager = Bukkit.getScoreboardManager();
-            if (manager != null) {
-                Bukkit.getOnlinePlayers().forEach(p -> p.setScoreboard(manager.getMainScoreboard()));
-            }
+            resetScoreboards();
         }
     }
 
@@ -221,12 +229,16 @@ public class PvpManager {
     public void prepareGameForTimer() {
         if (!featureEnabled) return;
         this.gameState = GameState.PRE_GAME;
+        nameManager.rebuildColorTagIndex();
+        rebuildProtectionIndex();
         teleportPlayersAndCreateBoxes();
     }
 
     public void startGame() {
         if (!featureEnabled || gameState == GameState.RUNNING) return;
         this.gameState = GameState.RUNNING;
+        nameManager.rebuildColorTagIndex();
+        rebuildProtectionIndex();
         updateAllScoreboards();
         createArenaWalls();
         unleashPlayers();
@@ -235,37 +247,10 @@ public class PvpManager {
             isGracePeriodActive = true;
             gracePeriodCountdown = gracePeriodTime;
             adventure.all().sendMessage(Component.text("[PvP] " + gracePeriodTime + "秒間の準備時間(PvP無効)が開始されました。", NamedTextColor.AQUA));
-
-            gracePeriodTask = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    if (gracePeriodCountdown <= 0 || gameState != GameState.RUNNING) {
-                        isGracePeriodActive = false;
-                        adventure.all().sendMessage(Component.text("[PvP] 準備時間が終了しました。PvPが有効になります。", NamedTextColor.RED));
-                        updateAllScoreboards();
-                        cancel();
-                        return;
-                    }
-                    gracePeriodCountdown--;
-                    updateAllScoreboards();
-                }
-            }.runTaskTimer(plugin, 20L, 20L);
+            ticker.schedule(null, PvpTicker.Kind.GRACE_PERIOD, 20L);
         }
 
-        hostileAreaDamageTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (gameState != GameState.RUNNING) {
-                    cancel();
-                    return;
-                }
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    if (isPlayerInEnemySpawnProtection(player)) {
-                        player.damage(2.0);
-                    }
-                }
-            }
-        }.runTaskTimer(plugin, 40L, 10L);
+        ticker.schedule(null, PvpTicker.Kind.HOSTILE_AREA, 40L);
     }
 
     public void stopGame(CommandSender sender) {
@@ -274,16 +259,10 @@ public class PvpManager {
         this.gameState = GameState.IDLE;
         this.isGracePeriodActive = false;
 
-        if (gracePeriodTask != null && !gracePeriodTask.isCancelled()) gracePeriodTask.cancel();
-        if (hostileAreaDamageTask != null && !hostileAreaDamageTask.isCancelled()) hostileAreaDamageTask.cancel();
-
-
-        new ArrayList<>(playerStateTasks.keySet()).forEach(uuid -> {
-            if (playerStateTasks.containsKey(uuid)) {
-                playerStateTasks.get(uuid).cancel();
-            }
-            playerStateTasks.remove(uuid);
-        });
+        // 死亡直後の強制リスポーンだけはゲーム終了後も実行する
+        List<UUID> pendingRespawns = ticker.getPendingPlayers(PvpTicker.Kind.RESPAWN);
+        ticker.clear();
+        pendingRespawns.forEach(uuid -> ticker.schedule(uuid, PvpTicker.Kind.RESPAWN, 1L));
 
         invinciblePlayers.clear();
         respawnTimers.clear();
@@ -293,10 +272,7 @@ public class PvpManager {
         removeArenaWalls();
         removeSpawnBoxes();
 
-        ScoreboardManager manager = Bukkit.getScoreboardManager();
-        if (manager != null) {
-            Bukkit.getOnlinePlayers().forEach(p -> p.setScoreboard(manager.getMainScoreboard()));
-        }
+        resetScoreboards();
 
         if (sender != null) {
             adventure.all().sendMessage(Component.text("[PvP] ゲームが終了しました！", NamedTextColor.AQUA));
@@ -332,6 +308,7 @@ public class PvpManager {
             return;
         }
         teamDataMap.put(teamColor, new ArenaData());
+        protectionIndexDirty = true;
         adventure.sender(sender).sendMessage(Component.text("チーム '" + teamColor + "' の設定を削除しました。", NamedTextColor.GOLD));
     }
 
@@ -345,6 +322,7 @@ public class PvpManager {
             teamDataMap.put(colorName, new ArenaData());
         }
         dedArenaData = new ArenaData();
+        protectionIndexDirty = true;
         teamLives.clear();
         playerLives.clear();
         if(sender != null) adventure.sender(sender).sendMessage(Component.text("PvPモードの全設定をリセットしました。", NamedTextColor.GOLD));
@@ -353,9 +331,9 @@ public class PvpManager {
     public boolean prepareGame(CommandSender sender) {
         if (!featureEnabled) return true;
         boolean isSafe = true;
-        List<Player> participants = getRegisteredPlayers();
-        Set<String> participantTeams = participants.stream().map(this::getPlayerTeamTag).filter(Objects::nonNull).collect(Collectors.toSet());
-        for (String teamTag : participantTeams) {
+        nameManager.rebuildColorTagIndex();
+        for (String teamTag : DEFAULT_TEAM_COLORS) {
+            if (nameManager.getColorMembers(teamTag).isEmpty()) continue;
             ArenaData data = teamDataMap.get(teamTag);
             if (data == null || data.getSpawnLocation() == null) {
                 adventure.sender(sender).sendMessage(Component.text("警告: チーム '" + teamTag + "' のスポーン地点が未設定です。", NamedTextColor.RED));
@@ -434,79 +412,45 @@ public class PvpManager {
             }
         }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!deadPlayer.isOnline()) return;
-                deadPlayer.spigot().respawn();
-            }
-        }.runTaskLater(plugin, 1L);
+        ticker.schedule(deadPlayer.getUniqueId(), PvpTicker.Kind.RESPAWN, 1L);
     }
 
     public void startRespawnTimer(Player player, int seconds) {
         respawnTimers.put(player.getUniqueId(), seconds);
-        BukkitRunnable task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                int timeLeft = respawnTimers.getOrDefault(player.getUniqueId(), 0);
-                if (timeLeft <= 0 || !player.isOnline() || gameState != GameState.RUNNING) {
-                    respawnTimers.remove(player.getUniqueId());
-                    playerStateTasks.remove(player.getUniqueId());
-                    if (player.isOnline() && gameState == GameState.RUNNING) {
-                        String teamTag = getPlayerTeamTag(player);
-                        if (teamTag != null && teamDataMap.get(teamTag).getSpawnLocation() != null) {
-                            player.teleport(teamDataMap.get(teamTag).getSpawnLocation());
-                            giveInvincibilityOnGrounded(player);
-                        }
-                    }
-                    updatePlayerScoreboard(player);
-                    cancel();
-                    return;
-                }
-                respawnTimers.put(player.getUniqueId(), timeLeft - 1);
-                updatePlayerScoreboard(player);
-            }
-        };
-        task.runTaskTimer(plugin, 0L, 20L);
-        playerStateTasks.put(player.getUniqueId(), task);
+        ticker.schedule(player.getUniqueId(), PvpTicker.Kind.RESPAWN_COUNTDOWN, 1L);
     }
 
-    @SuppressWarnings("deprecation")
     public void giveInvincibilityOnGrounded(Player player) {
         if (!respawnInvincibleEnabled) return;
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!player.isOnline() || !player.isOnGround()) return;
-                makePlayerInvincible(player, respawnInvincibleTime);
-                cancel();
-            }
-        }.runTaskTimer(plugin, 1L, 1L);
+        ticker.schedule(player.getUniqueId(), PvpTicker.Kind.WAIT_GROUNDED, 1L);
     }
 
-    public void handlePlayerQuit(Player player) {
-        if (playerStateTasks.containsKey(player.getUniqueId())) {
-            playerStateTasks.get(player.getUniqueId()).cancel();
-            playerStateTasks.remove(player.getUniqueId());
+    // PvP用のボードを表示中なら、参加したプレイヤーのチームを複製してボードを割り当てる
+    public void handlePlayerJoin(Player player) {
+        if (pvpScoreboard.addPlayer(player)) {
+            updatePlayerScoreboard(player);
         }
+    }
+
+    public void handlePlayerQuit(Player player) {
+        ticker.cancelAll(player.getUniqueId());
         invinciblePlayers.remove(player.getUniqueId());
         respawnTimers.remove(player.getUniqueId());
+        pvpScoreboard.removePlayer(player);
     }
 
     public boolean isLocationInProtectedArea(Location location) {
         if (gameState == GameState.IDLE) {
             return false;
         }
+        return getProtectionIndex().contains(location.getWorld(), location.getX(), location.getY(), location.getZ(), ProtectionIndex.ARENA | ProtectionIndex.DED_ARENA);
+    }
 
-        BlockVector3 locVector = BlockVector3.at(location.getX(), location.getY(), location.getZ());
-
-        for (ArenaData data : teamDataMap.values()) {
-            if (data.getArenaRegion() != null && data.getArenaRegion().contains(locVector)) {
-                return true;
-            }
+    public boolean isBlockInProtectedArea(Block block) {
+        if (gameState == GameState.IDLE) {
+            return false;
         }
-
-        return dedArenaData.getArenaRegion() != null && dedArenaData.getArenaRegion().contains(locVector);
+        return getProtectionIndex().contains(block.getWorld(), block.getX(), block.getY(), block.getZ(), ProtectionIndex.ARENA | ProtectionIndex.DED_ARENA);
     }
 
     public boolean isPlayerInOwnTeamProtectedArea(Player player) {
@@ -519,21 +463,13 @@ public class PvpManager {
             return false;
         }
 
-        ArenaData teamArenaData = teamDataMap.get(teamTag);
-        if (teamArenaData == null || teamArenaData.getArenaRegion() == null) {
-            return false;
-        }
-
-        Region region = teamArenaData.getArenaRegion();
-        BlockVector3 playerLocationVector = BlockVector3.at(player.getLocation().getX(), player.getLocation().getY(), player.getLocation().getZ());
-
-        return region.contains(playerLocationVector);
+        Location loc = player.getLocation(scratchLocation);
+        return getProtectionIndex().containsTeam(loc.getWorld(), loc.getX(), loc.getY(), loc.getZ(), ProtectionIndex.ARENA, teamTag);
     }
 
     public boolean isLocationInProtectedDedArea(Location location) {
         if (gameState != GameState.IDLE && dedFeatureEnabled && dedArenaData.getArenaRegion() != null) {
-            Region region = dedArenaData.getArenaRegion();
-            return region.contains(BlockVector3.at(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+            return getProtectionIndex().contains(location.getWorld(), location.getX(), location.getY(), location.getZ(), ProtectionIndex.DED_ARENA);
         }
         return false;
     }
@@ -544,10 +480,7 @@ public class PvpManager {
     }
 
     public String getPlayerTeamTag(Player player) {
-        for (String tagName : DEFAULT_TEAM_COLORS) {
-            if (player.getScoreboardTags().contains(tagName)) return tagName;
-        }
-        return null;
+        return nameManager.getColorTag(player.getUniqueId());
     }
 
     public void showStatus(CommandSender sender) {
@@ -556,6 +489,12 @@ public class PvpManager {
             return;
         }
         sender.sendMessage(ChatColor.GOLD + "--- PvPモード設定状況 ---");
+        if (gameState != GameState.IDLE) {
+            sender.sendMessage(ChatColor.GRAY + "稼働中のタイマー: " + ticker.getPendingCount()
+                    + " (復活待ち " + ticker.getPendingCount(PvpTicker.Kind.RESPAWN_COUNTDOWN)
+                    + " / 着地待ち " + ticker.getPendingCount(PvpTicker.Kind.WAIT_GROUNDED)
+                    + " / 無敵 " + ticker.getPendingCount(PvpTicker.Kind.INVINCIBILITY) + ")");
+        }
         boolean hasAnySetting = teamDataMap.values().stream().anyMatch(d -> d.getSpawnLocation() != null);
 
         if (!hasAnySetting) {
@@ -581,6 +520,7 @@ public class PvpManager {
             com.sk89q.worldedit.entity.Player wePlayer = BukkitAdapter.adapt(player);
             Region selection = plugin.getWorldEditHook().getSessionManager().get(wePlayer).getSelection(wePlayer.getWorld());
             dedArenaData.setArenaRegion(selection);
+            protectionIndexDirty = true;
         } catch (Exception e) {
             adventure.player(player).sendMessage(Component.text("デス待機場所(壁)の設定に失敗。範囲を選択してください。", NamedTextColor.RED));
         }
@@ -595,6 +535,7 @@ public class PvpManager {
         centeredLoc.setPitch(player.getLocation().getPitch());
         centeredLoc.setYaw(player.getLocation().getYaw());
         teamDataMap.get(teamColorName).setSpawnLocation(centeredLoc);
+        protectionIndexDirty = true;
         adventure.player(player).sendMessage(Component.text("チーム '" + teamColorName + "' のスポーン地点を設定しました。", NamedTextColor.GREEN));
     }
 
@@ -606,6 +547,7 @@ public class PvpManager {
             com.sk89q.worldedit.entity.Player wePlayer = BukkitAdapter.adapt(player);
             Region selection = plugin.getWorldEditHook().getSessionManager().get(wePlayer).getSelection(wePlayer.getWorld());
             teamDataMap.get(teamColorName).setArenaRegion(selection);
+            protectionIndexDirty = true;
         } catch (Exception e) {
             // silent fail
         }
@@ -632,147 +574,172 @@ public class PvpManager {
             }
         }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if(player.isOnline()) player.spigot().respawn();
-            }
-        }.runTaskLater(plugin, 1L);
+        ticker.schedule(player.getUniqueId(), PvpTicker.Kind.RESPAWN, 1L);
     }
 
     public void updateAllScoreboards() {
-        Bukkit.getOnlinePlayers().forEach(this::updatePlayerScoreboard);
+        commonScoreboardLines = buildCommonScoreboardLines();
+        Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
+        pvpScoreboard.syncTeams(onlinePlayers);
+        onlinePlayers.forEach(this::updatePlayerScoreboard);
+    }
+
+    private void resetScoreboards() {
+        commonScoreboardLines = null;
+        pvpScoreboard.reset();
     }
 
     private List<Player> getRegisteredPlayers() {
-        return Bukkit.getOnlinePlayers().stream().filter(p -> getPlayerTeamTag(p) != null).collect(Collectors.toList());
+        List<Player> players = new ArrayList<>();
+        for (UUID uuid : nameManager.getColoredPlayers()) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) players.add(player);
+        }
+        return players;
     }
 
-    @SuppressWarnings("deprecation")
     public void updatePlayerScoreboard(Player player) {
         if (!player.isOnline()) return;
-
-        ScoreboardManager manager = Bukkit.getScoreboardManager();
-        if (manager == null) return;
-
-        if (!livesFeatureEnabled && !isGracePeriodActive && !invinciblePlayers.containsKey(player.getUniqueId()) && !respawnTimers.containsKey(player.getUniqueId())) {
-            player.setScoreboard(manager.getMainScoreboard());
-            return;
+        if (commonScoreboardLines == null) {
+            commonScoreboardLines = buildCommonScoreboardLines();
         }
+        pvpScoreboard.render(player, buildPersonalScoreboardLines(player), commonScoreboardLines);
+    }
 
-        Scoreboard board = manager.getNewScoreboard();
-
-        Objective objective = board.registerNewObjective("pvp_status", "dummy", "§e§lステータス");
-        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
-
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            Team mainBoardTeam = nameManager.getPlayerTeam(p.getUniqueId());
-            if (mainBoardTeam == null) continue;
-
-            Team pvpBoardTeam = board.getTeam(mainBoardTeam.getName());
-            if (pvpBoardTeam == null) {
-                pvpBoardTeam = board.registerNewTeam(mainBoardTeam.getName());
-            }
+    // 準備時間中は個人ステータスを表示しない
+    private List<String> buildPersonalScoreboardLines(Player player) {
+        if (isGracePeriodActive) return List.of();
 
-            pvpBoardTeam.setColor(mainBoardTeam.getColor());
-            // ★★★ 修正箇所 ★★★
-            // setPrefix/setSuffixを使用
-            pvpBoardTeam.setPrefix(mainBoardTeam.getPrefix());
-            pvpBoardTeam.setSuffix(mainBoardTeam.getSuffix());
-            pvpBoardTeam.setOption(Team.Option.NAME_TAG_VISIBILITY, mainBoardTeam.getOption(Team.Option.NAME_TAG_VISIBILITY));
-            pvpBoardTeam.addEntry(p.getName());
+        UUID uuid = player.getUniqueId();
+        Integer respawnTime = respawnTimers.get(uuid);
+        if (respawnTime != null) {
+            return List.of("§cデス待機: §e" + respawnTime + "秒");
         }
+        Long invincibleUntil = invinciblePlayers.get(uuid);
+        if (invincibleUntil != null) {
+            long timeLeft = (invincibleUntil - System.currentTimeMillis()) / 1000;
+            return timeLeft > 0 ? List.of("§bリスポーン無敵: §e" + timeLeft + "秒") : List.of();
+        }
+        if (livesFeatureEnabled && isPlayerInOwnTeamProtectedArea(player)) {
+            return List.of("§a自チームエリア内 (無敵)");
+        }
+        return List.of();
+    }
 
-        AtomicInteger scoreCounter = new AtomicInteger(15);
-        boolean hasStatus = false;
-
+    private List<String> buildCommonScoreboardLines() {
+        List<String> lines = new ArrayList<>();
         if (isGracePeriodActive) {
-            objective.getScore("§b準備時間: §e" + gracePeriodCountdown + "秒").setScore(scoreCounter.getAndDecrement());
-            hasStatus = true;
-        } else if (respawnTimers.containsKey(player.getUniqueId())) {
-            objective.getScore("§cデス待機: §e" + respawnTimers.get(player.getUniqueId()) + "秒").setScore(scoreCounter.getAndDecrement());
-            hasStatus = true;
-        } else if (invinciblePlayers.containsKey(player.getUniqueId())) {
-            long timeLeft = (invinciblePlayers.get(player.getUniqueId()) - System.currentTimeMillis()) / 1000;
-            if (timeLeft > 0) {
-                objective.getScore("§bリスポーン無敵: §e" + timeLeft + "秒").setScore(scoreCounter.getAndDecrement());
-                hasStatus = true;
-            }
-        } else if (isPlayerInOwnTeamProtectedArea(player)) {
-            objective.getScore("§a自チームエリア内 (無敵)").setScore(scoreCounter.getAndDecrement());
-            hasStatus = true;
+            lines.add("§b準備時間: §e" + gracePeriodCountdown + "秒");
         }
-
-        if(livesFeatureEnabled) {
-            if(hasStatus) objective.getScore(" ").setScore(scoreCounter.getAndDecrement());
-            objective.getScore("§6- 残り残機 -").setScore(scoreCounter.getAndDecrement());
+        if (livesFeatureEnabled) {
+            if (isGracePeriodActive) lines.add(" ");
+            lines.add("§6- 残り残機 -");
 
             if (livesMode == LivesMode.TEAM) {
                 teamLives.entrySet().stream()
                         .sorted(Map.Entry.comparingByKey())
-                        .forEach(entry -> {
-                            String teamName = entry.getKey();
-                            int lives = entry.getValue();
-                            objective.getScore(ChatColor.translateAlternateColorCodes('&', "&" + getColorCode(teamName) + teamName + ": &e" + lives)).setScore(scoreCounter.getAndDecrement());
-                        });
+                        .forEach(entry -> lines.add(ChatColor.translateAlternateColorCodes('&', "&" + getColorCode(entry.getKey()) + entry.getKey() + ": &e" + entry.getValue())));
             } else {
                 getRegisteredPlayers().stream()
                         .sorted(Comparator.comparing(p -> nameManager.getDisplayName(p.getUniqueId())))
-                        .forEach(p -> {
-                            int lives = playerLives.getOrDefault(p.getUniqueId(), 0);
-                            objective.getScore(nameManager.getDisplayName(p.getUniqueId()) + ": §e" + lives).setScore(scoreCounter.getAndDecrement());
-                        });
+                        .forEach(p -> lines.add(nameManager.getDisplayName(p.getUniqueId()) + ": §e" + playerLives.getOrDefault(p.getUniqueId(), 0)));
             }
-        } else if (!hasStatus) {
-            player.setScoreboard(manager.getMainScoreboard());
-            return;
         }
-        player.setScoreboard(board);
+        return lines;
     }
 
     private void makePlayerInvincible(Player player, int seconds) {
         if (!player.isOnline()) return;
-        final UUID playerUUID = player.getUniqueId();
-
-        if (playerStateTasks.containsKey(playerUUID)) {
-            playerStateTasks.get(playerUUID).cancel();
-        }
-
-        invinciblePlayers.put(playerUUID, System.currentTimeMillis() + ((long) seconds * 1000L));
+        invinciblePlayers.put(player.getUniqueId(), System.currentTimeMillis() + ((long) seconds * 1000L));
         player.addPotionEffect(new PotionEffect(PotionEffectType.RESISTANCE, seconds * 20 + 10, 254, true, false));
         adventure.player(player).sendMessage(Component.text(seconds + "秒間、無敵です。", NamedTextColor.YELLOW));
+        ticker.schedule(player.getUniqueId(), PvpTicker.Kind.INVINCIBILITY, 20L);
+    }
 
-        BukkitRunnable task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                Player onlinePlayer = Bukkit.getPlayer(playerUUID);
-                if (onlinePlayer == null || !onlinePlayer.isOnline() || !invinciblePlayers.containsKey(playerUUID) || gameState != GameState.RUNNING) {
-                    cleanup();
-                    return;
-                }
+    // --- Timers ---
+    private long onTimer(UUID playerId, PvpTicker.Kind kind) {
+        return switch (kind) {
+            case RESPAWN -> {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) player.spigot().respawn();
+                yield 0L;
+            }
+            case RESPAWN_COUNTDOWN -> tickRespawnCountdown(playerId);
+            case WAIT_GROUNDED -> tickWaitGrounded(playerId);
+            case INVINCIBILITY -> tickInvincibility(playerId);
+            case GRACE_PERIOD -> tickGracePeriod();
+            case HOSTILE_AREA -> tickHostileArea();
+        };
+    }
 
-                long timeLeft = invinciblePlayers.get(playerUUID) - System.currentTimeMillis();
-                if (timeLeft <= 0) {
-                    adventure.player(onlinePlayer).sendMessage(Component.text("無敵時間が終了しました。", NamedTextColor.GRAY));
-                    cleanup();
-                    return;
+    private long tickRespawnCountdown(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        int timeLeft = respawnTimers.getOrDefault(playerId, 0);
+        if (timeLeft <= 0 || player == null || gameState != GameState.RUNNING) {
+            respawnTimers.remove(playerId);
+            if (player == null) return 0L;
+            if (gameState == GameState.RUNNING) {
+                String teamTag = getPlayerTeamTag(player);
+                if (teamTag != null && teamDataMap.get(teamTag).getSpawnLocation() != null) {
+                    player.teleport(teamDataMap.get(teamTag).getSpawnLocation());
+                    giveInvincibilityOnGrounded(player);
                 }
-                updatePlayerScoreboard(onlinePlayer);
             }
+            updatePlayerScoreboard(player);
+            return 0L;
+        }
+        respawnTimers.put(playerId, timeLeft - 1);
+        updatePlayerScoreboard(player);
+        return 20L;
+    }
 
-            private void cleanup() {
-                invinciblePlayers.remove(playerUUID);
-                playerStateTasks.remove(playerUUID);
-                Player onlinePlayer = Bukkit.getPlayer(playerUUID);
-                if (onlinePlayer != null) {
-                    onlinePlayer.removePotionEffect(PotionEffectType.RESISTANCE);
-                    updatePlayerScoreboard(onlinePlayer);
-                }
-                cancel();
+    @SuppressWarnings("deprecation")
+    private long tickWaitGrounded(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) return 0L;
+        if (!player.isOnGround()) return 1L;
+        makePlayerInvincible(player, respawnInvincibleTime);
+        return 0L;
+    }
+
+    private long tickInvincibility(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        Long invincibleUntil = invinciblePlayers.get(playerId);
+        if (player != null && invincibleUntil != null && gameState == GameState.RUNNING) {
+            if (invincibleUntil - System.currentTimeMillis() > 0) {
+                updatePlayerScoreboard(player);
+                return 20L;
             }
-        };
-        task.runTaskTimer(plugin, 20L, 20L);
-        playerStateTasks.put(playerUUID, task);
+            adventure.player(player).sendMessage(Component.text("無敵時間が終了しました。", NamedTextColor.GRAY));
+        }
+        invinciblePlayers.remove(playerId);
+        if (player != null) {
+            player.removePotionEffect(PotionEffectType.RESISTANCE);
+            updatePlayerScoreboard(player);
+        }
+        return 0L;
+    }
+
+    private long tickGracePeriod() {
+        if (gracePeriodCountdown <= 0 || gameState != GameState.RUNNING) {
+            isGracePeriodActive = false;
+            adventure.all().sendMessage(Component.text("[PvP] 準備時間が終了しました。PvPが有効になります。", NamedTextColor.RED));
+            updateAllScoreboards();
+            return 0L;
+        }
+        gracePeriodCountdown--;
+        updateAllScoreboards();
+        return 20L;
+    }
+
+    private long tickHostileArea() {
+        if (gameState != GameState.RUNNING) return 0L;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (isPlayerInEnemySpawnProtection(player)) {
+                player.damage(2.0);
+            }
+        }
+        return 10L;
     }
 
     private void teleportPlayersAndCreateBoxes() {
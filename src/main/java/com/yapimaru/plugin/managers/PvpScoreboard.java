@@ -0,0 +1,224 @@
+package com.yapimaru.plugin.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.*;
+
+import java.util.*;
+
+// PvP用のサイドバー。チームの複製と全員共通の表示(準備時間・残機)は共有ボード1枚にまとめ、
+// 個人ステータス(デス待機・無敵など)がある間だけ個人用ボードを使う。
+// 表示内容は前回との差分だけを反映する
+class PvpScoreboard {
+
+    private static final String OBJECTIVE_NAME = "pvp_status";
+    private static final String OBJECTIVE_TITLE = "§e§lステータス";
+    private static final int TOP_SCORE = 15;
+
+    private final NameManager nameManager;
+    private Board shared;
+    private final Map<UUID, Board> overlays = new HashMap<>();
+    private final Map<String, TeamState> mirroredTeams = new HashMap<>(); // Key: チーム名
+    private final Map<UUID, String> mirroredTeamNames = new HashMap<>(); // 退出時にメインボードを引かずに消せるよう控えておく
+
+    PvpScoreboard(NameManager nameManager) {
+        this.nameManager = nameManager;
+    }
+
+    // メインスコアボードのチーム表示を複製する。変化のあったチームだけを各ボードへ反映する
+    @SuppressWarnings("deprecation")
+    void syncTeams(Collection<? extends Player> players) {
+        if (shared == null && !createShared()) return;
+        for (Player p : players) {
+            Team mainBoardTeam = nameManager.getPlayerTeam(p.getUniqueId());
+            if (mainBoardTeam == null) continue;
+
+            TeamState state = new TeamState(mainBoardTeam.getName(), p.getName(), mainBoardTeam.getColor(),
+                    mainBoardTeam.getPrefix(), mainBoardTeam.getSuffix(), mainBoardTeam.getOption(Team.Option.NAME_TAG_VISIBILITY));
+            if (state.equals(mirroredTeams.get(state.teamName))) continue;
+
+            mirroredTeams.put(state.teamName, state);
+            mirroredTeamNames.put(p.getUniqueId(), state.teamName);
+            shared.applyTeam(state);
+            for (Board overlay : overlays.values()) {
+                overlay.applyTeam(state);
+            }
+        }
+    }
+
+    void render(Player player, List<String> personalLines, List<String> commonLines) {
+        ScoreboardManager manager = Bukkit.getScoreboardManager();
+        if (manager == null) return;
+
+        if (personalLines.isEmpty() && commonLines.isEmpty()) {
+            overlays.remove(player.getUniqueId());
+            assign(player, manager.getMainScoreboard());
+            return;
+        }
+        if (shared == null && !createShared()) return;
+
+        if (personalLines.isEmpty()) {
+            overlays.remove(player.getUniqueId());
+            shared.setLines(commonLines);
+            assign(player, shared.scoreboard);
+            return;
+        }
+
+        Board overlay = overlays.get(player.getUniqueId());
+        if (overlay == null) {
+            overlay = new Board(manager.getNewScoreboard());
+            for (TeamState state : mirroredTeams.values()) {
+                overlay.applyTeam(state);
+            }
+            overlays.put(player.getUniqueId(), overlay);
+        }
+        List<String> lines = new ArrayList<>(personalLines.size() + commonLines.size() + 1);
+        lines.addAll(personalLines);
+        if (!commonLines.isEmpty()) {
+            lines.add(" ");
+            lines.addAll(commonLines);
+        }
+        overlay.setLines(lines);
+        assign(player, overlay.scoreboard);
+    }
+
+    // 共有ボードを使っている間だけ、参加したプレイヤーのチームを複製する。複製した場合は true
+    boolean addPlayer(Player player) {
+        if (shared == null) return false;
+        syncTeams(List.of(player));
+        return true;
+    }
+
+    void removePlayer(Player player) {
+        overlays.remove(player.getUniqueId());
+        String teamName = mirroredTeamNames.remove(player.getUniqueId());
+        if (teamName == null || mirroredTeams.remove(teamName) == null) return;
+        if (shared != null) shared.removeTeam(teamName);
+        for (Board overlay : overlays.values()) {
+            overlay.removeTeam(teamName);
+        }
+    }
+
+    // 全員をメインスコアボードに戻し、PvP用ボードを破棄する
+    void reset() {
+        ScoreboardManager manager = Bukkit.getScoreboardManager();
+        if (manager != null) {
+            Bukkit.getOnlinePlayers().forEach(p -> p.setScoreboard(manager.getMainScoreboard()));
+        }
+        shared = null;
+        overlays.clear();
+        mirroredTeams.clear();
+        mirroredTeamNames.clear();
+    }
+
+    private boolean createShared() {
+        ScoreboardManager manager = Bukkit.getScoreboardManager();
+        if (manager == null) return false;
+        shared = new Board(manager.getNewScoreboard());
+        mirroredTeams.clear();
+        mirroredTeamNames.clear();
+        syncTeams(Bukkit.getOnlinePlayers());
+        return true;
+    }
+
+    private void assign(Player player, Scoreboard scoreboard) {
+        if (player.getScoreboard() != scoreboard) {
+            player.setScoreboard(scoreboard);
+        }
+    }
+
+    private static final class Board {
+        private final Scoreboard scoreboard;
+        private final Objective objective;
+        private final Map<String, Integer> scores = new HashMap<>();
+        private List<String> lastLines; // 同じリストで何度も呼ばれた場合は何もしない
+
+        @SuppressWarnings("deprecation")
+        private Board(Scoreboard scoreboard) {
+            this.scoreboard = scoreboard;
+            this.objective = scoreboard.registerNewObjective(OBJECTIVE_NAME, "dummy", OBJECTIVE_TITLE);
+            this.objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+        }
+
+        private void setLines(List<String> lines) {
+            if (lines == lastLines) return;
+            lastLines = lines;
+            Map<String, Integer> desired = new HashMap<>();
+            int score = TOP_SCORE;
+            for (String line : lines) {
+                desired.putIfAbsent(line, score--);
+            }
+
+            Iterator<Map.Entry<String, Integer>> iterator = scores.entrySet().iterator();
+            while (iterator.hasNext()) {
+                String entry = iterator.next().getKey();
+                if (!desired.containsKey(entry)) {
+                    scoreboard.resetScores(entry);
+                    iterator.remove();
+                }
+            }
+            for (Map.Entry<String, Integer> entry : desired.entrySet()) {
+                Integer current = scores.get(entry.getKey());
+                if (current == null || !current.equals(entry.getValue())) {
+                    objective.getScore(entry.getKey()).setScore(entry.getValue());
+                    scores.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        private void applyTeam(TeamState state) {
+            Team team = scoreboard.getTeam(state.teamName);
+            if (team == null) {
+                team = scoreboard.registerNewTeam(state.teamName);
+            }
+            team.setColor(state.color);
+            team.setPrefix(state.prefix);
+            team.setSuffix(state.suffix);
+            team.setOption(Team.Option.NAME_TAG_VISIBILITY, state.nameTagVisibility);
+            if (!team.hasEntry(state.entry)) {
+                team.addEntry(state.entry);
+            }
+        }
+
+        private void removeTeam(String teamName) {
+            Team team = scoreboard.getTeam(teamName);
+            if (team != null) {
+                team.unregister();
+            }
+        }
+    }
+
+    private static final class TeamState {
+        private final String teamName;
+        private final String entry;
+        private final ChatColor color;
+        private final String prefix;
+        private final String suffix;
+        private final Team.OptionStatus nameTagVisibility;
+
+        private TeamState(String teamName, String entry, ChatColor color, String prefix, String suffix, Team.OptionStatus nameTagVisibility) {
+            this.teamName = teamName;
+            this.entry = entry;
+            this.color = color;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.nameTagVisibility = nameTagVisibility;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TeamState other)) return false;
+            return teamName.equals(other.teamName) && entry.equals(other.entry) && color == other.color
+                    && Objects.equals(prefix, other.prefix) && Objects.equals(suffix, other.suffix)
+                    && nameTagVisibility == other.nameTagVisibility;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(teamName, entry, color, prefix, suffix, nameTagVisibility);
+        }
+    }
+}
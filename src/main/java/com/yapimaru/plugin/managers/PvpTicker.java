@@ -0,0 +1,179 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+// PvPのタイマーを1本のタスクでまとめて処理する。
+// 期限の近い順に並べておき、毎tick期限の来たものだけを実行する。タイマーが無い間はタスクを止める
+final class PvpTicker {
+
+    enum Kind { RESPAWN, RESPAWN_COUNTDOWN, WAIT_GROUNDED, INVINCIBILITY, GRACE_PERIOD, HOSTILE_AREA }
+
+    interface Handler {
+        // 次回実行までのtick数を返す。0以下なら終了
+        long onTimer(UUID playerId, Kind kind);
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final YAPIMARU_Plugin plugin;
+    private final Handler handler;
+    private final PriorityQueue<Timer> queue = new PriorityQueue<>();
+    private final Map<UUID, Timer[]> playerTimers = new HashMap<>();
+    private final Timer[] globalTimers = new Timer[KINDS.length]; // プレイヤーに紐づかないタイマー (playerId == null)
+    private final int[] pendingCounts = new int[KINDS.length];
+    private int pendingTotal = 0;
+    private long currentTick = 0;
+    private long sequence = 0;
+    private int generation = 0;
+    private BukkitTask task;
+
+    PvpTicker(YAPIMARU_Plugin plugin, Handler handler) {
+        this.plugin = plugin;
+        this.handler = handler;
+    }
+
+    // 同じプレイヤー・種類のタイマーがあれば置き換える
+    void schedule(UUID playerId, Kind kind, long delayTicks) {
+        Timer[] slots = getSlots(playerId, true);
+        Timer previous = slots[kind.ordinal()];
+        if (previous != null) {
+            previous.cancelled = true;
+        } else {
+            pendingCounts[kind.ordinal()]++;
+            pendingTotal++;
+        }
+        Timer timer = new Timer(playerId, kind);
+        slots[kind.ordinal()] = timer;
+        enqueue(timer, delayTicks);
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    void cancelAll(UUID playerId) {
+        Timer[] slots = playerTimers.remove(playerId);
+        if (slots == null) return;
+        for (Timer timer : slots) {
+            if (timer == null) continue;
+            timer.cancelled = true;
+            pendingCounts[timer.kind.ordinal()]--;
+            pendingTotal--;
+        }
+    }
+
+    void clear() {
+        queue.clear();
+        playerTimers.clear();
+        Arrays.fill(globalTimers, null);
+        Arrays.fill(pendingCounts, 0);
+        pendingTotal = 0;
+        generation++;
+        stop();
+    }
+
+    boolean isPending(UUID playerId, Kind kind) {
+        Timer[] slots = getSlots(playerId, false);
+        return slots != null && slots[kind.ordinal()] != null;
+    }
+
+    List<UUID> getPendingPlayers(Kind kind) {
+        List<UUID> players = new ArrayList<>();
+        playerTimers.forEach((uuid, slots) -> {
+            if (slots[kind.ordinal()] != null) players.add(uuid);
+        });
+        return players;
+    }
+
+    int getPendingCount() {
+        return pendingTotal;
+    }
+
+    int getPendingCount(Kind kind) {
+        return pendingCounts[kind.ordinal()];
+    }
+
+    private void tick() {
+        currentTick++;
+        int startGeneration = generation;
+        Timer timer;
+        while ((timer = queue.peek()) != null && timer.dueTick <= currentTick) {
+            queue.poll();
+            if (timer.cancelled) continue;
+            release(timer);
+
+            long next = handler.onTimer(timer.playerId, timer.kind);
+            if (generation != startGeneration) return; // 処理中に clear() された
+
+            // ハンドラ内で同じ種類が登録し直された場合はそちらを優先する
+            if (next > 0 && !isPending(timer.playerId, timer.kind)) {
+                getSlots(timer.playerId, true)[timer.kind.ordinal()] = timer;
+                pendingCounts[timer.kind.ordinal()]++;
+                pendingTotal++;
+                enqueue(timer, next);
+            }
+        }
+        if (pendingTotal == 0) {
+            queue.clear();
+            stop();
+        }
+    }
+
+    private void enqueue(Timer timer, long delayTicks) {
+        timer.dueTick = currentTick + Math.max(1L, delayTicks);
+        timer.sequence = sequence++;
+        queue.add(timer);
+    }
+
+    private void release(Timer timer) {
+        Timer[] slots = getSlots(timer.playerId, false);
+        if (slots == null || slots[timer.kind.ordinal()] != timer) return;
+        slots[timer.kind.ordinal()] = null;
+        pendingCounts[timer.kind.ordinal()]--;
+        pendingTotal--;
+        if (timer.playerId != null && isEmpty(slots)) {
+            playerTimers.remove(timer.playerId);
+        }
+    }
+
+    private Timer[] getSlots(UUID playerId, boolean create) {
+        if (playerId == null) return globalTimers;
+        return create ? playerTimers.computeIfAbsent(playerId, k -> new Timer[KINDS.length]) : playerTimers.get(playerId);
+    }
+
+    private static boolean isEmpty(Timer[] slots) {
+        for (Timer timer : slots) {
+            if (timer != null) return false;
+        }
+        return true;
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private static final class Timer implements Comparable<Timer> {
+        private final UUID playerId;
+        private final Kind kind;
+        private long dueTick;
+        private long sequence;
+        private boolean cancelled = false;
+
+        private Timer(UUID playerId, Kind kind) {
+            this.playerId = playerId;
+            this.kind = kind;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+        }
+    }
+}
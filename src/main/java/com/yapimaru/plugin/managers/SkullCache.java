@@ -0,0 +1,122 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.profile.PlayerProfile;
+
+import java.util.*;
+import java.util.logging.Level;
+
+// GUIに並べるプレイヤーの頭のキャッシュ。
+// スキン付きの頭をUUIDごとに1つだけ作っておき、GUIを開くたびにそれを複製して名前と説明だけを載せ替える。
+// スキン情報の取得は参加時などに別スレッドで済ませ、メインスレッドでは待たない
+public final class SkullCache {
+
+    private final YAPIMARU_Plugin plugin;
+    private final int maxSize;
+    private final long expireMillis;
+    private final Map<UUID, CachedSkull> skulls;
+    private final Set<UUID> resolving = new HashSet<>();
+    private long hits;
+    private long misses;
+
+    public SkullCache(YAPIMARU_Plugin plugin) {
+        this.plugin = plugin;
+        this.maxSize = Math.max(1, plugin.getConfig().getInt("skull-cache.max-size", 512));
+        this.expireMillis = Math.max(1, plugin.getConfig().getLong("skull-cache.expire-minutes", 30)) * 60_000L;
+        this.skulls = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedSkull> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // 名前と説明を載せた頭を返す。キャッシュになければその場で作り、スキンは後から別スレッドで取得する
+    public ItemStack getHead(UUID uuid, String displayName, List<String> lore) {
+        ItemStack head = getBaseHead(uuid).clone();
+        SkullMeta meta = (SkullMeta) head.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(displayName);
+            meta.setLore(lore);
+            head.setItemMeta(meta);
+        }
+        return head;
+    }
+
+    // 参加時に呼ぶ。スキン付きの頭を先に作っておく
+    public void warm(Player player) {
+        UUID uuid = player.getUniqueId();
+        PlayerProfile profile = player.getPlayerProfile();
+        if (profile.getTextures().isEmpty()) {
+            resolveAsync(uuid, profile);
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, () -> skulls.put(uuid, new CachedSkull(createSkull(profile))));
+    }
+
+    public String getStats() {
+        long total = hits + misses;
+        String hitRate = total == 0 ? "-" : String.format("%.1f%%", hits * 100.0 / total);
+        return "cached=" + skulls.size() + "/" + maxSize + ", hits=" + hits + ", misses=" + misses + ", hit rate=" + hitRate;
+    }
+
+    private ItemStack getBaseHead(UUID uuid) {
+        CachedSkull cached = skulls.get(uuid);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.createdAt < expireMillis) {
+            hits++;
+            return cached.item;
+        }
+        misses++;
+
+        Player online = Bukkit.getPlayer(uuid);
+        PlayerProfile profile = online != null ? online.getPlayerProfile() : Bukkit.createPlayerProfile(uuid);
+        ItemStack item = createSkull(profile);
+        skulls.put(uuid, new CachedSkull(item));
+        if (profile.getTextures().isEmpty()) {
+            resolveAsync(uuid, profile);
+        }
+        return item;
+    }
+
+    // スキン情報の取得 (通信あり) は別スレッドで行い、終わったらメインスレッドで頭を差し替える
+    private void resolveAsync(UUID uuid, PlayerProfile profile) {
+        if (!resolving.add(uuid)) return;
+        profile.update().whenComplete((updated, error) -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                resolving.remove(uuid);
+                if (error != null) {
+                    plugin.getLogger().log(Level.FINE, "Could not resolve skin for " + uuid, error);
+                    return;
+                }
+                skulls.put(uuid, new CachedSkull(createSkull(updated)));
+            });
+        });
+    }
+
+    private static ItemStack createSkull(PlayerProfile profile) {
+        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta meta = (SkullMeta) head.getItemMeta();
+        if (meta != null) {
+            meta.setOwnerProfile(profile);
+            head.setItemMeta(meta);
+        }
+        return head;
+    }
+
+    private static final class CachedSkull {
+        private final ItemStack item;
+        private final long createdAt;
+
+        private CachedSkull(ItemStack item) {
+            this.item = item;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+}
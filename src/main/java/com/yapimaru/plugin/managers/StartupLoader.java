@@ -0,0 +1,133 @@
+package com.yapimaru.plugin.managers;
+
+import com.yapimaru.plugin.YAPIMARU_Plugin;
+import org.bukkit.Bukkit;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+// 起動時のデータ読み込み。
+// 各機能のファイルを専用のスレッドプールで並列に解析し、結果の反映だけをメインスレッドでまとめて行う。
+// すべて反映し終わるまでは isReady() が false になり、ログインは待たせる
+public final class StartupLoader {
+
+    // 別スレッドで実行し、メインスレッドで反映する処理を返す
+    public interface Task {
+        Runnable load() throws Exception;
+    }
+
+    private final YAPIMARU_Plugin plugin;
+    private final ForkJoinPool pool;
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    public StartupLoader(YAPIMARU_Plugin plugin) {
+        this.plugin = plugin;
+        int threads = plugin.getConfig().getInt("startup.loader-threads", 0);
+        if (threads <= 0) threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("YAPIMARU-Loader-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public void add(String name, Task task) {
+        tasks.put(name, task);
+    }
+
+    // 登録した読み込みを並列に開始する。すべて反映し終えたらメインスレッドで onReady を実行する
+    public void start(Runnable onReady) {
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<Void>> published = new ArrayList<>();
+        tasks.forEach((name, task) -> {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            published.add(done);
+            CompletableFuture.supplyAsync(() -> {
+                long loadStart = System.nanoTime();
+                try {
+                    Runnable publish = task.load();
+                    return new Loaded(publish, System.nanoTime() - loadStart);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, pool).whenComplete((loaded, error) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Failed to load " + name + " data.", error);
+                        return;
+                    }
+                    long publishStart = System.nanoTime();
+                    loaded.publish.run();
+                    plugin.getLogger().info(String.format("Startup: %s loaded in %d ms (applied in %d ms).",
+                            name, TimeUnit.NANOSECONDS.toMillis(loaded.loadNanos), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publishStart)));
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to apply " + name + " data.", e);
+                } finally {
+                    done.complete(null);
+                }
+            }));
+        });
+
+        // 最後の反映はメインスレッドで完了するので、続きもメインスレッドで動く。
+        // onReady の中から参加者の作成などができるよう、先に準備完了にする
+        CompletableFuture.allOf(published.toArray(new CompletableFuture[0])).thenRun(() -> {
+            pool.shutdown();
+            ready.complete(null);
+            plugin.getLogger().info("Startup: all data loaded in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms.");
+            onReady.run();
+        });
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    // ログイン処理 (非同期スレッド) から呼ぶ。時間内に読み込みが終われば true
+    public boolean awaitReady(long timeoutSeconds) {
+        try {
+            ready.get(timeoutSeconds, TimeUnit.SECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    // ファイルなどを並列に解析する。読み込み用のスレッドから呼べばそのプール内で、それ以外からなら共通プールで処理される。
+    // 解析に失敗したものはログに出して飛ばす
+    public static <S, T> List<T> parseAll(YAPIMARU_Plugin plugin, Collection<S> sources, Parser<S, T> parser) {
+        return sources.parallelStream()
+                .map(source -> {
+                    try {
+                        return parser.parse(source);
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.SEVERE, "Failed to load " + source, e);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public interface Parser<S, T> {
+        T parse(S source) throws Exception;
+    }
+
+    private static final class Loaded {
+        private final Runnable publish;
+        private final long loadNanos;
+
+        private Loaded(Runnable publish, long loadNanos) {
+            this.publish = publish;
+            this.loadNanos = loadNanos;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.yapimaru.plugin.managers;
+
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// オンラインプレイヤーをチーム色ごとに名前順で並べた一覧 (色なしは "none")。
+// 参加・退出・色の変更のたびに該当のプレイヤーだけを入れ直すので、テレポートメニューは毎回全員を並べ直さなくてよい
+final class TeamPlayerIndex {
+
+    static final String NO_COLOR = "none";
+
+    private static final Comparator<Player> BY_NAME = Comparator.comparing(Player::getName).thenComparing(Player::getUniqueId);
+
+    private final Map<String, List<Player>> playersByColor = new LinkedHashMap<>(); // WOOL_COLOR_NAMES の順、最後に "none"
+    private final Map<UUID, String> colorByPlayer = new HashMap<>();
+
+    TeamPlayerIndex() {
+        for (String colorName : NameManager.WOOL_COLOR_NAMES) {
+            playersByColor.put(colorName, new ArrayList<>());
+        }
+        playersByColor.put(NO_COLOR, new ArrayList<>());
+    }
+
+    void update(Player player, String colorName) {
+        String bucket = colorName != null && playersByColor.containsKey(colorName) ? colorName : NO_COLOR;
+        String previous = colorByPlayer.put(player.getUniqueId(), bucket);
+        if (previous != null) {
+            if (previous.equals(bucket)) return;
+            removeFromBucket(previous, player);
+        }
+        List<Player> players = playersByColor.get(bucket);
+        int index = Collections.binarySearch(players, player, BY_NAME);
+        players.add(index < 0 ? -index - 1 : index, player);
+    }
+
+    void remove(Player player) {
+        String previous = colorByPlayer.remove(player.getUniqueId());
+        if (previous != null) removeFromBucket(previous, player);
+    }
+
+    void clear() {
+        colorByPlayer.clear();
+        playersByColor.values().forEach(List::clear);
+    }
+
+    // 色の順 (最後が "none") に並んだ、色ごとの名前順の一覧
+    Map<String, List<Player>> getPlayersByColor() {
+        return Collections.unmodifiableMap(playersByColor);
+    }
+
+    // 名前順の一覧の中での位置 (いなければ負の値)
+    static int indexOf(List<Player> players, Player player) {
+        return Collections.binarySearch(players, player, BY_NAME);
+    }
+
+    Player pickRandom(String colorName) {
+        List<Player> players = playersByColor.get(colorName);
+        if (players == null || players.isEmpty()) return null;
+        return players.get(ThreadLocalRandom.current().nextInt(players.size()));
+    }
+
+    // プレイヤー名 (ログイン名) はログイン中に変わらないので、名前順の位置から探せる
+    private void removeFromBucket(String colorName, Player player) {
+        List<Player> players = playersByColor.get(colorName);
+        int index = indexOf(players, player);
+        if (index >= 0) players.remove(index);
+    }
+}
@@ -0,0 +1,24 @@
+package com.yapimaru.plugin.util;
+
+// ブロック座標を1つの long に詰める (x, z: 26bit / y: 12bit。BlockPos と同じ詰め方)
+public final class BlockKey {
+
+    private BlockKey() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFFL);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+}